@@ -13,6 +13,15 @@ const AuditLogPage = () => {
   const [logs, setLogs] = useState([]);
   const [loading, setLoading] = useState(false);
   const [total, setTotal] = useState(0);
+  // 总数统计方式：EXACT精确，CAPPED有上限（totalCapped为true时表示超过上限），ESTIMATED估算
+  const [totalMode, setTotalMode] = useState('EXACT');
+  const [totalCapped, setTotalCapped] = useState(false);
+  const [counting, setCounting] = useState(false);
+  // 页码分页允许的最大偏移量，更深的页只能通过游标逐页到达
+  const [maxOffset, setMaxOffset] = useState(10000);
+  // 页码 -> 查询该页使用的游标（上一页响应中的nextCursor），筛选条件或每页数量变化时清空
+  const cursorsRef = useRef({});
+  const [lastCursorPage, setLastCursorPage] = useState(1);
   const [operationTypes, setOperationTypes] = useState([]);
   const [form] = Form.useForm();
   const [pagination, setPagination] = useState({
@@ -43,28 +52,38 @@ const AuditLogPage = () => {
     fetchOperationTypes();
   }, []);
 
+  // 根据搜索表单构建筛选条件
+  const buildFilterParams = useCallback(() => {
+    const values = form.getFieldsValue();
+    return {
+      userId: values.userId || null,
+      username: values.username || null,
+      operationType: values.operationType || null,
+      status: values.status || null,
+      startTime: values.timeRange && values.timeRange[0] 
+        ? values.timeRange[0].format('YYYY-MM-DD HH:mm:ss') 
+        : null,
+      endTime: values.timeRange && values.timeRange[1] 
+        ? values.timeRange[1].format('YYYY-MM-DD HH:mm:ss') 
+        : null,
+    };
+  }, [form]);
+
   // 查询审计日志
   const fetchAuditLogs = useCallback(async (params = {}) => {
     setLoading(true);
     try {
       const token = localStorage.getItem('accessToken');
-      const values = form.getFieldsValue();
       
       // 使用 ref 获取最新的 pagination，避免依赖循环
       const currentPagination = paginationRef.current;
+      const page = params.page !== undefined ? params.page : currentPagination.current;
       const queryParams = {
-        userId: values.userId || null,
-        username: values.username || null,
-        operationType: values.operationType || null,
-        status: values.status || null,
-        startTime: values.timeRange && values.timeRange[0] 
-          ? values.timeRange[0].format('YYYY-MM-DD HH:mm:ss') 
-          : null,
-        endTime: values.timeRange && values.timeRange[1] 
-          ? values.timeRange[1].format('YYYY-MM-DD HH:mm:ss') 
-          : null,
-        page: params.page !== undefined ? params.page : currentPagination.current,
+        ...buildFilterParams(),
+        page,
         pageSize: params.pageSize !== undefined ? params.pageSize : currentPagination.pageSize,
+        // 已知游标时按游标查询，不受最大偏移量限制
+        cursor: cursorsRef.current[page] || null,
       };
 
       const response = await axios.post('/audit-logs/query', queryParams, {
@@ -74,6 +93,16 @@ const AuditLogPage = () => {
       if (response.data.code === 200) {
         setLogs(response.data.data.list || []);
         setTotal(response.data.data.total || 0);
+        setTotalMode(response.data.data.totalMode || 'EXACT');
+        setTotalCapped(!!response.data.data.totalCapped);
+        if (response.data.data.maxOffset) {
+          setMaxOffset(response.data.data.maxOffset);
+        }
+        // 记录下一页的游标，之后可逐页翻到最大偏移量之外
+        if (response.data.data.hasMore && response.data.data.nextCursor) {
+          cursorsRef.current[page + 1] = response.data.data.nextCursor;
+          setLastCursorPage(prev => Math.max(prev, page + 1));
+        }
         // 只在返回的页码与当前不同时更新
         if (response.data.data.page && response.data.data.page !== currentPagination.current) {
           setPagination(prev => ({
@@ -89,7 +118,55 @@ const AuditLogPage = () => {
     } finally {
       setLoading(false);
     }
-  }, [form]);
+  }, [buildFilterParams]);
+
+  // 按需精确统计总数（查询接口默认返回有上限或估算的总数）
+  const fetchExactTotal = async () => {
+    setCounting(true);
+    try {
+      const token = localStorage.getItem('accessToken');
+      const response = await axios.post('/audit-logs/count', buildFilterParams(), {
+        headers: { Authorization: `Bearer ${token}` }
+      });
+      if (response.data.code === 200) {
+        setTotal(response.data.data || 0);
+        setTotalMode('EXACT');
+        setTotalCapped(false);
+      } else {
+        message.error(response.data.message || '统计总数失败');
+      }
+    } catch (error) {
+      message.error('统计总数失败：' + error.message);
+    } finally {
+      setCounting(false);
+    }
+  };
+
+  // 清空游标（筛选条件或每页数量变化后游标失效）
+  const resetCursors = () => {
+    cursorsRef.current = {};
+    setLastCursorPage(1);
+  };
+
+  // 分页器可到达的记录数：页码分页不超过最大偏移量，更深的页只在已取得游标时可到达
+  const reachablePages = Math.max(Math.floor(maxOffset / pagination.pageSize) + 1, lastCursorPage);
+  const paginatorTotal = Math.min(total, reachablePages * pagination.pageSize);
+
+  // 分页器总数显示（显示实际总数，而不是分页器可到达的记录数）
+  const renderTotal = () => {
+    const value = total;
+    if (totalMode === 'EXACT' || (totalMode === 'CAPPED' && !totalCapped)) {
+      return `共 ${value} 条记录`;
+    }
+    return (
+      <span>
+        {totalCapped ? `超过 ${value} 条记录` : `约 ${value} 条记录`}
+        <Button type="link" size="small" loading={counting} onClick={fetchExactTotal}>
+          精确统计
+        </Button>
+      </span>
+    );
+  };
 
   // 初始加载 - 只在组件挂载时执行一次
   useEffect(() => {
@@ -99,6 +176,7 @@ const AuditLogPage = () => {
 
   // 处理搜索
   const handleSearch = () => {
+    resetCursors();
     const newPagination = { ...paginationRef.current, current: 1 };
     paginationRef.current = newPagination;
     setPagination(newPagination);
@@ -108,6 +186,7 @@ const AuditLogPage = () => {
   // 处理重置
   const handleReset = () => {
     form.resetFields();
+    resetCursors();
     const newPagination = { current: 1, pageSize: 10 };
     paginationRef.current = newPagination;
     setPagination(newPagination);
@@ -116,6 +195,9 @@ const AuditLogPage = () => {
 
   // 处理分页变化
   const handleTableChange = (newPagination) => {
+    if (newPagination.pageSize !== paginationRef.current.pageSize) {
+      resetCursors();
+    }
     const updatedPagination = {
       current: newPagination.current,
       pageSize: newPagination.pageSize,
@@ -303,9 +385,9 @@ const AuditLogPage = () => {
         pagination={{
           current: pagination.current,
           pageSize: pagination.pageSize,
-          total: total,
+          total: paginatorTotal,
           showSizeChanger: true,
-          showTotal: (total) => `共 ${total} 条记录`,
+          showTotal: renderTotal,
           pageSizeOptions: ['10', '20', '50', '100'],
         }}
         onChange={handleTableChange}
@@ -25,7 +25,7 @@ const LoginPage = ({ setIsAuthenticated }) => {
   const [passwordForm] = Form.useForm();
   const [phoneForm] = Form.useForm();
   const qrcodeTimerRef = useRef(null);
-  const statusPollTimerRef = useRef(null);
+  const statusPollRef = useRef(null);
 
   // 自动登录处理函数
   const handleAutoLogin = useCallback(async (credentials) => {
@@ -274,57 +274,78 @@ const LoginPage = ({ setIsAuthenticated }) => {
     }
   };
 
-  // 轮询检查微信扫码状态
-  const startPollingStatus = (ticket) => {
-    // 清除之前的定时器
-    if (statusPollTimerRef.current) {
-      clearInterval(statusPollTimerRef.current);
+  // 停止等待扫码状态
+  const stopPollingStatus = () => {
+    if (statusPollRef.current) {
+      statusPollRef.current.cancelled = true;
+      statusPollRef.current = null;
     }
+  };
+
+  // 长轮询等待微信扫码状态：同一时刻只有一个请求，服务端在状态变化或超时后返回，再带上最新状态发起下一次
+  const startPollingStatus = async (ticket) => {
+    stopPollingStatus();
+    const session = { cancelled: false };
+    statusPollRef.current = session;
 
-    let pollCount = 0;
-    const maxPollCount = 120; // 最多轮询2分钟（120次，每次1秒）
+    const deadline = Date.now() + 2 * 60 * 1000; // 最多等待2分钟
+    let lastStatus = 'waiting';
 
-    statusPollTimerRef.current = setInterval(async () => {
-      pollCount++;
-      if (pollCount > maxPollCount) {
-        clearInterval(statusPollTimerRef.current);
+    while (!session.cancelled) {
+      if (Date.now() > deadline) {
+        stopPollingStatus();
         setQrcodeStatus('expired');
         message.error('二维码已过期，请刷新');
         return;
       }
 
       try {
-        const response = await axios.get(`/auth/wechat/status?ticket=${ticket}`);
+        const response = await axios.get('/auth/wechat/status/wait', {
+          params: { ticket, lastStatus, timeout: 25000 },
+          timeout: 35000,
+        });
+        if (session.cancelled) {
+          return;
+        }
         if (response.data.code === 200) {
-          const status = response.data.data.status;
-          
+          const { status, authResponse } = response.data.data;
+          lastStatus = status;
+
           if (status === 'scanned') {
             setQrcodeStatus('scanned');
           } else if (status === 'confirmed') {
-            clearInterval(statusPollTimerRef.current);
+            stopPollingStatus();
+            // 认证结果只交付一次，已被其他页面取走时需要重新扫码
+            if (!authResponse) {
+              setQrcodeStatus('expired');
+              message.error('登录结果已失效，请刷新二维码重新扫码');
+              return;
+            }
             setQrcodeStatus('success');
-            // 登录成功
-            const authData = response.data.data.authResponse;
-            handleLoginSuccess(authData);
+            handleLoginSuccess(authResponse);
+            return;
           } else if (status === 'expired') {
-            clearInterval(statusPollTimerRef.current);
+            stopPollingStatus();
             setQrcodeStatus('expired');
             message.error('二维码已过期');
+            return;
           }
         }
       } catch (error) {
-        // 轮询错误不显示消息，继续轮询
-        console.error('轮询状态失败:', error);
+        if (session.cancelled) {
+          return;
+        }
+        // 请求失败不显示消息，稍后重试
+        console.error('等待扫码状态失败:', error);
+        await new Promise((resolve) => setTimeout(resolve, 2000));
       }
-    }, 1000);
+    }
   };
 
   // 登录成功处理
   const handleLoginSuccess = (data) => {
-    // 清除轮询定时器
-    if (statusPollTimerRef.current) {
-      clearInterval(statusPollTimerRef.current);
-    }
+    // 停止等待扫码状态
+    stopPollingStatus();
 
     // 保存Token到本地存储
     localStorage.setItem('accessToken', data.accessToken);
@@ -349,11 +370,8 @@ const LoginPage = ({ setIsAuthenticated }) => {
       fetchWechatQrcode();
     }
     
-    // 清除之前的轮询
-    if (statusPollTimerRef.current) {
-      clearInterval(statusPollTimerRef.current);
-      statusPollTimerRef.current = null;
-    }
+    // 停止之前的等待
+    stopPollingStatus();
   };
 
   // 清理定时器
@@ -362,8 +380,8 @@ const LoginPage = ({ setIsAuthenticated }) => {
       if (qrcodeTimerRef.current) {
         clearInterval(qrcodeTimerRef.current);
       }
-      if (statusPollTimerRef.current) {
-        clearInterval(statusPollTimerRef.current);
+      if (statusPollRef.current) {
+        statusPollRef.current.cancelled = true;
       }
     };
   }, []);
@@ -130,7 +130,9 @@ CREATE TABLE `users` (
   UNIQUE KEY `phone` (`phone`),
   KEY `idx_user_username` (`username`),
   KEY `idx_user_email` (`email`),
-  KEY `idx_user_phone` (`phone`)
+  KEY `idx_user_phone` (`phone`),
+  KEY `idx_user_created_at` (`created_at`),
+  KEY `idx_user_updated_at` (`updated_at`)
 ) ENGINE=InnoDB AUTO_INCREMENT=18 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='用户表';
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -163,6 +165,59 @@ CREATE TABLE `audit_logs` (
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='审计日志表';
 /*!40101 SET character_set_client = @saved_cs_client */;
 
+--
+-- Table structure for table `audit_log_hourly_counts`
+--
+
+DROP TABLE IF EXISTS `audit_log_hourly_counts`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `audit_log_hourly_counts` (
+  `bucket_hour` DATETIME NOT NULL COMMENT '统计小时（整点）',
+  `operation_type` VARCHAR(50) NOT NULL COMMENT '操作类型',
+  `status` VARCHAR(20) NOT NULL COMMENT '操作状态：SUCCESS, FAILURE',
+  `log_count` BIGINT NOT NULL DEFAULT 0 COMMENT '审计日志条数',
+  `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`bucket_hour`, `operation_type`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='审计日志按小时计数表（写入审计日志时增量累加，用于估算查询总数）';
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `audit_log_minute_counts`
+--
+
+DROP TABLE IF EXISTS `audit_log_minute_counts`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `audit_log_minute_counts` (
+  `bucket_minute` DATETIME NOT NULL COMMENT '统计分钟（整分）',
+  `operation_type` VARCHAR(50) NOT NULL COMMENT '操作类型',
+  `status` VARCHAR(20) NOT NULL COMMENT '操作状态：SUCCESS, FAILURE',
+  `log_count` BIGINT NOT NULL DEFAULT 0 COMMENT '审计日志条数',
+  `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`bucket_minute`, `operation_type`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='审计日志按分钟计数表（数据看板，超过保留期的数据定时清理）';
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `audit_log_user_hourly_counts`
+--
+
+DROP TABLE IF EXISTS `audit_log_user_hourly_counts`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `audit_log_user_hourly_counts` (
+  `user_id` BIGINT(20) NOT NULL COMMENT '用户ID，0表示未识别的用户（如不存在的用户名登录失败）',
+  `bucket_hour` DATETIME NOT NULL COMMENT '统计小时（整点）',
+  `operation_type` VARCHAR(50) NOT NULL COMMENT '操作类型',
+  `status` VARCHAR(20) NOT NULL COMMENT '操作状态：SUCCESS, FAILURE',
+  `log_count` BIGINT NOT NULL DEFAULT 0 COMMENT '审计日志条数',
+  `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`user_id`, `bucket_hour`, `operation_type`, `status`),
+  KEY `idx_bucket_hour` (`bucket_hour`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='审计日志按用户、小时计数表';
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `mock_data`
 --
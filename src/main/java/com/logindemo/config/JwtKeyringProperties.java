@@ -0,0 +1,57 @@
+package com.logindemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JWT密钥环配置
+ * 配置多个密钥时，active-kid指定的密钥用于签名，其余密钥只用于验签（轮换前预发布的新密钥或已退役的旧密钥）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt.keyring")
+public class JwtKeyringProperties {
+
+    /**
+     * 当前签名密钥的kid
+     */
+    private String activeKid;
+
+    /**
+     * 密钥列表
+     */
+    private List<Key> keys = new ArrayList<>();
+
+    @Data
+    public static class Key {
+
+        /**
+         * 密钥标识，写入Token头的kid
+         */
+        private String kid;
+
+        /**
+         * 签名算法：HS512 或 ES256
+         */
+        private String algorithm = "HS512";
+
+        /**
+         * HS512共享密钥（至少64个字符）
+         */
+        private String secret;
+
+        /**
+         * ES256私钥（PKCS#8，PEM或Base64），只用于验签的退役密钥可以不配置
+         */
+        private String privateKey;
+
+        /**
+         * ES256公钥（X.509，PEM或Base64）
+         */
+        private String publicKey;
+    }
+}
@@ -0,0 +1,46 @@
+package com.logindemo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis消息订阅容器启动器
+ * 应用启动完成后启动订阅容器，Redis不可用时定时重试，与RedisUtils的降级策略保持一致
+ */
+@Component
+public class RedisListenerStarter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisListenerStarter.class);
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureStarted();
+    }
+
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000)
+    public void ensureStarted() {
+        if (listenerContainer.isRunning()) {
+            return;
+        }
+        try {
+            listenerContainer.start();
+            logger.info("Redis消息订阅容器已启动");
+        } catch (Exception e) {
+            logger.warn("Redis消息订阅容器启动失败，稍后重试: {}", e.getMessage());
+            try {
+                listenerContainer.stop();
+            } catch (Exception ignored) {
+                // 重置容器状态，便于下次重试
+            }
+        }
+    }
+}
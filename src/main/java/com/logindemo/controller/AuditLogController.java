@@ -1,14 +1,19 @@
 package com.logindemo.controller;
 
-import com.logindemo.model.AuditLog;
+import com.logindemo.model.AuditLogRollupCount;
 import com.logindemo.model.dto.ApiResponse;
+import com.logindemo.model.dto.AuditLogPage;
+import com.logindemo.model.dto.AuditLogTotal;
 import com.logindemo.model.dto.AuditLogQueryRequest;
+import com.logindemo.model.dto.AuditLogRollupBackfillRequest;
+import com.logindemo.model.dto.AuditLogStatsRequest;
 import com.logindemo.service.AuditLogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -28,6 +33,12 @@ public class AuditLogController {
     @Autowired
     private AuditLogService auditLogService;
     
+    /**
+     * 页码分页允许的最大偏移量，返回给前端用于限制可直接跳转的页码
+     */
+    @Value("${audit-log.query.max-offset:10000}")
+    private int maxOffset;
+    
     /**
      * 查询审计日志
      */
@@ -36,7 +47,7 @@ public class AuditLogController {
     public ApiResponse<Map<String, Object>> queryAuditLogs(@RequestBody AuditLogQueryRequest request) {
         logger.info("查询审计日志，条件: {}", request);
         try {
-            List<AuditLog> logs = auditLogService.getAuditLogs(
+            AuditLogPage page = auditLogService.queryAuditLogs(
                 request.getUserId(),
                 request.getUsername(),
                 request.getOperationType(),
@@ -44,23 +55,30 @@ public class AuditLogController {
                 request.getStartTime(),
                 request.getEndTime(),
                 request.getPage(),
-                request.getPageSize()
+                request.getPageSize(),
+                request.getCursor()
             );
             
-            Long total = auditLogService.countAuditLogs(
+            AuditLogTotal total = auditLogService.countAuditLogs(
                 request.getUserId(),
                 request.getUsername(),
                 request.getOperationType(),
                 request.getStatus(),
                 request.getStartTime(),
-                request.getEndTime()
+                request.getEndTime(),
+                request.getCountMode()
             );
             
             Map<String, Object> result = new HashMap<>();
-            result.put("list", logs);
-            result.put("total", total);
-            result.put("page", request.getPage());
+            result.put("list", page.getList());
+            result.put("total", total.getTotal());
+            result.put("totalMode", total.getMode());
+            result.put("totalCapped", total.isCapped());
+            result.put("page", request.getCursor() == null || request.getCursor().isEmpty() ? request.getPage() : null);
             result.put("pageSize", request.getPageSize());
+            result.put("hasMore", page.isHasMore());
+            result.put("nextCursor", page.getNextCursor());
+            result.put("maxOffset", maxOffset);
             
             return ApiResponse.success(result);
         } catch (Exception e) {
@@ -69,6 +87,53 @@ public class AuditLogController {
         }
     }
     
+    /**
+     * 精确统计审计日志数量（查询接口返回的总数为估算或有上限时，由前端按需调用）
+     */
+    @PostMapping("/count")
+    @Operation(summary = "精确统计审计日志数量")
+    public ApiResponse<Long> countAuditLogs(@RequestBody AuditLogQueryRequest request) {
+        logger.info("精确统计审计日志数量，条件: {}", request);
+        Long total = auditLogService.countAuditLogs(
+            request.getUserId(),
+            request.getUsername(),
+            request.getOperationType(),
+            request.getStatus(),
+            request.getStartTime(),
+            request.getEndTime()
+        );
+        return ApiResponse.success(total);
+    }
+    
+    /**
+     * 查询审计日志汇总计数（按分钟或按小时），数据看板和统计页面使用，不扫描audit_logs
+     */
+    @PostMapping("/stats")
+    @Operation(summary = "查询审计日志汇总计数")
+    public ApiResponse<List<AuditLogRollupCount>> getAuditLogStats(@RequestBody AuditLogStatsRequest request) {
+        logger.info("查询审计日志汇总计数，条件: {}", request);
+        List<AuditLogRollupCount> counts = auditLogService.getAuditLogStats(
+            request.getGranularity(),
+            request.getStartTime(),
+            request.getEndTime(),
+            request.getUserId(),
+            request.getOperationType(),
+            request.getStatus()
+        );
+        return ApiResponse.success(counts);
+    }
+    
+    /**
+     * 从审计日志重建汇总计数（后台分块执行，接口立即返回）
+     */
+    @PostMapping("/rollups/backfill")
+    @Operation(summary = "重建审计日志汇总计数")
+    public ApiResponse<String> backfillRollups(@RequestBody AuditLogRollupBackfillRequest request) {
+        logger.info("重建审计日志汇总计数，范围: {}", request);
+        String range = auditLogService.startRollupBackfill(request.getStartTime(), request.getEndTime());
+        return ApiResponse.success(range);
+    }
+    
     /**
      * 获取操作类型列表
      */
@@ -8,22 +8,31 @@ import com.logindemo.model.dto.PhoneLoginRequest;
 import com.logindemo.model.dto.RegisterRequest;
 import com.logindemo.model.dto.SmsCodeRequest;
 import com.logindemo.model.dto.SendEmailCodeRequest;
+import com.logindemo.model.dto.TokenIntrospectionRequest;
+import com.logindemo.model.dto.TokenIntrospectionResponse;
 import com.logindemo.model.dto.ForgotPasswordRequest;
 import com.logindemo.model.dto.ResetPasswordRequest;
 import com.logindemo.model.dto.WechatQrcodeResponse;
 import com.logindemo.model.dto.WechatStatusResponse;
 import com.logindemo.service.MenuService;
 import com.logindemo.service.UserService;
+import com.logindemo.utils.JwtKeyring;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 认证控制器
@@ -41,6 +50,9 @@ public class AuthController {
     @Autowired
     private MenuService menuService;
 
+    @Autowired
+    private JwtKeyring jwtKeyring;
+
     /**
      * 用户注册
      */
@@ -115,6 +127,29 @@ public class AuthController {
         return ApiResponse.success(isValid);
     }
 
+    /**
+     * 批量校验Token（供API网关合并校验请求）
+     */
+    @PostMapping("/introspect")
+    @Operation(summary = "批量校验Token")
+    public ApiResponse<List<TokenIntrospectionResponse>> introspectTokens(
+            @Valid @RequestBody TokenIntrospectionRequest request) {
+        return ApiResponse.success(userService.introspectTokens(request.getTokens()));
+    }
+
+    /**
+     * 发布Token验签公钥（JWKS格式）
+     * 下游服务缓存公钥后可在本地验签，无需逐个请求调用/auth/validate；
+     * 按JWKS标准格式返回，不包装ApiResponse
+     */
+    @GetMapping("/jwks")
+    @Operation(summary = "获取Token验签公钥（JWKS）")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(Collections.singletonMap("keys", jwtKeyring.getPublicJwks()));
+    }
+
     /**
      * 发送短信验证码
      */
@@ -185,6 +220,20 @@ public class AuthController {
         }
     }
 
+    /**
+     * 等待微信扫码状态变化（长轮询）
+     * 请求挂起期间不占用线程，状态变化时立即返回；客户端收到响应后携带最新状态再次请求
+     */
+    @GetMapping("/wechat/status/wait")
+    @Operation(summary = "等待微信扫码状态变化（长轮询）")
+    public CompletableFuture<ApiResponse<WechatStatusResponse>> waitWechatStatus(
+            @RequestParam("ticket") String ticket,
+            @RequestParam(value = "lastStatus", required = false) String lastStatus,
+            @RequestParam(value = "timeout", defaultValue = "25000") long timeout) {
+        logger.debug("收到等待微信扫码状态请求，ticket: {}, lastStatus: {}", ticket, lastStatus);
+        return userService.waitWechatStatus(ticket, lastStatus, timeout).thenApply(ApiResponse::success);
+    }
+
     /**
      * 发送邮箱验证码（用于密码找回）
      */
@@ -16,6 +16,14 @@ public class BusinessException extends RuntimeException {
         super(message);
         this.code = code;
     }
+
+    /**
+     * writableStackTrace为false时不填充堆栈，用于高频、无需排查调用栈的拒绝路径
+     */
+    public BusinessException(int code, String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.code = code;
+    }
     
     public int getCode() {
         return code;
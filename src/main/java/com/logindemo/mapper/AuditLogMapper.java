@@ -13,6 +13,11 @@ import java.util.List;
 @Mapper
 public interface AuditLogMapper extends BaseMapper<AuditLog> {
     
+    /**
+     * 批量插入审计日志（一条多行INSERT）
+     */
+    int insertBatch(@Param("list") List<AuditLog> auditLogs);
+    
     /**
      * 根据条件查询审计日志
      */
@@ -27,6 +32,21 @@ public interface AuditLogMapper extends BaseMapper<AuditLog> {
         @Param("limit") Integer limit
     );
     
+    /**
+     * 按游标查询审计日志：返回(created_at, id)排在游标之后的记录（按时间倒序）
+     */
+    List<AuditLog> selectAuditLogsAfter(
+        @Param("userId") Long userId,
+        @Param("username") String username,
+        @Param("operationType") String operationType,
+        @Param("status") String status,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime,
+        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+        @Param("cursorId") Long cursorId,
+        @Param("limit") Integer limit
+    );
+    
     /**
      * 统计符合条件的审计日志数量
      */
@@ -38,5 +58,17 @@ public interface AuditLogMapper extends BaseMapper<AuditLog> {
         @Param("startTime") LocalDateTime startTime,
         @Param("endTime") LocalDateTime endTime
     );
+    
+    /**
+     * 统计符合条件的审计日志数量，最多数到limit条
+     */
+    Long countAuditLogsCapped(
+        @Param("userId") Long userId,
+        @Param("username") String username,
+        @Param("operationType") String operationType,
+        @Param("status") String status,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime,
+        @Param("limit") Integer limit
+    );
 }
-
@@ -0,0 +1,122 @@
+package com.logindemo.mapper;
+
+import com.logindemo.model.AuditLogRollupCount;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 审计日志汇总计数Mapper接口
+ */
+@Mapper
+public interface AuditLogRollupMapper {
+    
+    /**
+     * 累加按分钟计数（不存在则插入）
+     */
+    int upsertMinuteCounts(@Param("list") List<AuditLogRollupCount> counts);
+    
+    /**
+     * 累加按小时计数（不存在则插入）
+     */
+    int upsertHourlyCounts(@Param("list") List<AuditLogRollupCount> counts);
+    
+    /**
+     * 累加按用户、小时计数（不存在则插入）
+     */
+    int upsertUserHourlyCounts(@Param("list") List<AuditLogRollupCount> counts);
+    
+    /**
+     * 汇总时间范围内的按小时计数（startHour、endHour为空表示不限）
+     */
+    Long sumHourlyCounts(
+        @Param("operationType") String operationType,
+        @Param("status") String status,
+        @Param("startHour") LocalDateTime startHour,
+        @Param("endHour") LocalDateTime endHour
+    );
+    
+    /**
+     * 汇总指定用户时间范围内的按小时计数（startHour、endHour为空表示不限）
+     */
+    Long sumUserHourlyCounts(
+        @Param("userId") Long userId,
+        @Param("operationType") String operationType,
+        @Param("status") String status,
+        @Param("startHour") LocalDateTime startHour,
+        @Param("endHour") LocalDateTime endHour
+    );
+    
+    /**
+     * 查询时间范围[startTime, endTime)内的按分钟计数
+     */
+    List<AuditLogRollupCount> selectMinuteCounts(
+        @Param("operationType") String operationType,
+        @Param("status") String status,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+    
+    /**
+     * 查询时间范围[startTime, endTime)内的按小时计数
+     */
+    List<AuditLogRollupCount> selectHourlyCounts(
+        @Param("operationType") String operationType,
+        @Param("status") String status,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+    
+    /**
+     * 查询指定用户时间范围[startTime, endTime)内的按小时计数
+     */
+    List<AuditLogRollupCount> selectUserHourlyCounts(
+        @Param("userId") Long userId,
+        @Param("operationType") String operationType,
+        @Param("status") String status,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+    
+    /**
+     * 分批删除早于指定时间的按分钟计数
+     * @return 删除的行数
+     */
+    int deleteMinuteCountsBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+    
+    /**
+     * 查询最早一条审计日志的创建时间，没有审计日志时返回null
+     */
+    LocalDateTime selectEarliestAuditLogTime();
+    
+    /**
+     * 删除时间范围[startTime, endTime)内的按分钟计数
+     */
+    int deleteMinuteCounts(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+    
+    /**
+     * 删除时间范围[startTime, endTime)内的按小时计数
+     */
+    int deleteHourlyCounts(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+    
+    /**
+     * 删除时间范围[startTime, endTime)内的按用户、小时计数
+     */
+    int deleteUserHourlyCounts(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+    
+    /**
+     * 从audit_logs重建时间范围[startTime, endTime)内的按分钟计数
+     */
+    int rebuildMinuteCounts(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+    
+    /**
+     * 从audit_logs重建时间范围[startTime, endTime)内的按小时计数
+     */
+    int rebuildHourlyCounts(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+    
+    /**
+     * 从audit_logs重建时间范围[startTime, endTime)内的按用户、小时计数
+     */
+    int rebuildUserHourlyCounts(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+}
@@ -22,6 +22,41 @@ public interface MockDataMapper extends BaseMapper<MockData> {
      * 删除过期的数据
      */
     int deleteExpiredData(@Param("expireTime") LocalDateTime expireTime);
+
+    /**
+     * 分批删除过期数据（按expire_time索引范围删除，每次最多limit行）
+     */
+    int deleteExpiredBatch(@Param("expireTime") LocalDateTime expireTime, @Param("limit") int limit);
+
+    /**
+     * 分批删除已使用或已过期状态的数据（按status索引，只删除updatedBefore之前更新的行）
+     */
+    int deleteInactiveBatch(@Param("updatedBefore") LocalDateTime updatedBefore, @Param("limit") int limit);
+    
+    /**
+     * 统计某个键在since之后创建的数据行数（用于重发间隔限制）
+     */
+    int countCreatedSince(@Param("dataType") String dataType, @Param("dataKey") String dataKey,
+                          @Param("since") LocalDateTime since);
+
+    /**
+     * 将某个键下仍有效的数据置为已过期（签发新验证码时作废旧验证码）
+     */
+    int expireActive(@Param("dataType") String dataType, @Param("dataKey") String dataKey);
+
+    /**
+     * 校验并消费一次性验证码：值匹配、仍有效且未过期时置为已使用，校验与消费在同一条语句中完成
+     * @return 影响行数，1表示本次调用消费成功，0表示验证码不匹配、已使用或已过期（并发请求中只有一个能返回1）
+     */
+    int consumeCode(@Param("dataType") String dataType, @Param("dataKey") String dataKey,
+                    @Param("dataValue") String dataValue);
+
+    /**
+     * 记录一次校验失败：extra_data中的失败次数加1，达到maxAttempts时置为已过期
+     * @return 影响行数，0表示该键下没有有效的验证码
+     */
+    int recordCodeFailure(@Param("dataType") String dataType, @Param("dataKey") String dataKey,
+                          @Param("maxAttempts") int maxAttempts);
     
     /**
      * 更新状态
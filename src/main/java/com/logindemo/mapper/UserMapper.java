@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.logindemo.model.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -31,4 +32,21 @@ public interface UserMapper extends BaseMapper<User> {
      * 根据用户名查询角色ID列表
      */
     List<Long> selectRoleIdsByUsername(@Param("username") String username);
+
+    /**
+     * 查询全部用户名（用于重建用户名过滤器）
+     */
+    List<String> selectAllUsernames();
+
+    /**
+     * 查询创建或修改时间不早于since的用户名（用户名过滤器增量同步）
+     */
+    List<String> selectUsernamesChangedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * 密码哈希仍为expectedPassword时才更新（用于哈希升级，避免覆盖并发修改的新密码）
+     */
+    int updatePasswordIfMatches(@Param("id") Long id,
+                                @Param("expectedPassword") String expectedPassword,
+                                @Param("newPassword") String newPassword);
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.logindemo.model;
+
+import lombok.Data;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 审计日志汇总计数实体类（按时间桶、操作类型、状态以及可选的用户汇总）
+ */
+@Data
+public class AuditLogRollupCount implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 时间桶起点（整分钟或整点）
+     */
+    private LocalDateTime bucketTime;
+    
+    /**
+     * 用户ID（仅按用户汇总时有值，0表示未识别的用户）
+     */
+    private Long userId;
+    
+    /**
+     * 操作类型
+     */
+    private String operationType;
+    
+    /**
+     * 操作状态：SUCCESS, FAILURE
+     */
+    private String status;
+    
+    /**
+     * 审计日志条数
+     */
+    private Long logCount;
+}
@@ -0,0 +1,27 @@
+package com.logindemo.model.dto;
+
+import com.logindemo.model.AuditLog;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * 审计日志分页结果DTO
+ */
+@Data
+public class AuditLogPage {
+    
+    /**
+     * 当前页记录
+     */
+    private List<AuditLog> list;
+    
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+    
+    /**
+     * 下一页游标（没有下一页时为null），原样传回AuditLogQueryRequest.cursor即可继续翻页
+     */
+    private String nextCursor;
+}
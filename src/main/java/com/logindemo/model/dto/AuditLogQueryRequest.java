@@ -48,5 +48,15 @@ public class AuditLogQueryRequest {
      * 每页数量
      */
     private Integer pageSize = 10;
+    
+    /**
+     * 分页游标（上一页响应中的nextCursor），传入时按游标翻页并忽略page
+     */
+    private String cursor;
+    
+    /**
+     * 总数统计方式：exact, capped, estimated, none，为空时使用配置的默认方式
+     */
+    private String countMode;
 }
 
@@ -0,0 +1,21 @@
+package com.logindemo.model.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 审计日志汇总计数重建请求DTO
+ */
+@Data
+public class AuditLogRollupBackfillRequest {
+    
+    /**
+     * 开始时间，为空时从最早一条审计日志开始
+     */
+    private LocalDateTime startTime;
+    
+    /**
+     * 结束时间，为空时到当前小时为止
+     */
+    private LocalDateTime endTime;
+}
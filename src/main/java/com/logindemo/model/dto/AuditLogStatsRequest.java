@@ -0,0 +1,41 @@
+package com.logindemo.model.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 审计日志统计请求DTO（查询汇总计数，供数据看板使用）
+ */
+@Data
+public class AuditLogStatsRequest {
+    
+    /**
+     * 时间粒度：minute, hour
+     */
+    private String granularity = "hour";
+    
+    /**
+     * 开始时间（包含），为空时为结束时间前24小时
+     */
+    private LocalDateTime startTime;
+    
+    /**
+     * 结束时间（不包含），为空时为当前时间
+     */
+    private LocalDateTime endTime;
+    
+    /**
+     * 用户ID，仅支持hour粒度，0表示未识别的用户
+     */
+    private Long userId;
+    
+    /**
+     * 操作类型
+     */
+    private String operationType;
+    
+    /**
+     * 状态：SUCCESS, FAILURE
+     */
+    private String status;
+}
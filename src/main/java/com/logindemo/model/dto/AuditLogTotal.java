@@ -0,0 +1,49 @@
+package com.logindemo.model.dto;
+
+import com.logindemo.exception.BusinessException;
+import lombok.Data;
+import java.util.Locale;
+
+/**
+ * 审计日志查询总数DTO
+ */
+@Data
+public class AuditLogTotal {
+    
+    /**
+     * 统计方式
+     */
+    public enum Mode {
+        /** 精确计数（COUNT(*)） */
+        EXACT,
+        /** 最多数到上限，超过上限时返回上限值并标记capped */
+        CAPPED,
+        /** 按小时汇总计数估算（常数时间，不支持按用户筛选） */
+        ESTIMATED,
+        /** 不统计 */
+        NONE;
+        
+        public static Mode parse(String value) {
+            try {
+                return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException(400, "不支持的统计方式: " + value + "，可选值: exact, capped, estimated, none");
+            }
+        }
+    }
+    
+    /**
+     * 总数（NONE时为null）
+     */
+    private Long total;
+    
+    /**
+     * 实际使用的统计方式（ESTIMATED在按用户筛选时退化为CAPPED）
+     */
+    private Mode mode;
+    
+    /**
+     * 是否超过上限（仅CAPPED），为true时total为上限值，实际总数更多
+     */
+    private boolean capped;
+}
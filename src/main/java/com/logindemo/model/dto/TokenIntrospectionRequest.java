@@ -0,0 +1,17 @@
+package com.logindemo.model.dto;
+
+import lombok.Data;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * 批量Token校验请求DTO
+ */
+@Data
+public class TokenIntrospectionRequest {
+
+    @NotEmpty(message = "Token列表不能为空")
+    @Size(max = 100, message = "单次最多校验100个Token")
+    private List<String> tokens;
+}
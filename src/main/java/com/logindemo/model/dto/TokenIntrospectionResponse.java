@@ -0,0 +1,35 @@
+package com.logindemo.model.dto;
+
+import lombok.Data;
+
+/**
+ * 单个Token校验结果DTO
+ */
+@Data
+public class TokenIntrospectionResponse {
+
+    /**
+     * Token是否有效（验签通过、未过期、未吊销）
+     */
+    private boolean active;
+
+    /**
+     * 用户ID（仅在有效时返回）
+     */
+    private Long userId;
+
+    /**
+     * 用户名（仅在有效时返回）
+     */
+    private String username;
+
+    /**
+     * Token类型：access, refresh（仅在有效时返回）
+     */
+    private String type;
+
+    /**
+     * 过期时间（毫秒时间戳，仅在有效时返回）
+     */
+    private Long expiresAt;
+}
@@ -1,8 +1,7 @@
 package com.logindemo.security;
 
-import com.logindemo.model.User;
 import com.logindemo.service.UserService;
-import com.logindemo.utils.JwtUtils;
+import com.logindemo.utils.VerifiedToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -25,10 +24,16 @@ import java.util.Collections;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JwtUtils jwtUtils;
+    private UserService userService;
 
     @Autowired
-    private UserService userService;
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
 
     private static final String BEARER_PREFIX = "Bearer ";
 
@@ -39,17 +44,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 获取请求头中的Token
             String token = getTokenFromRequest(request);
 
-            // 验证Token
-            if (StringUtils.hasText(token) && jwtUtils.validateToken(token)) {
-                // 从Token中获取用户ID
-                Long userId = jwtUtils.getUserIdFromToken(token);
+            // 验证Token（验签与解析只做一次，同一Token命中缓存时跳过验签）
+            VerifiedToken verifiedToken = StringUtils.hasText(token) ? verifiedTokenCache.verify(token) : null;
+            // 已吊销（登出）的Token通过本地吊销索引拒绝，不访问Redis
+            if (verifiedToken != null && !tokenRevocationRegistry.isRevoked(verifiedToken)) {
+                Long userId = verifiedToken.getUserId();
 
-                // 查询用户信息
-                User user = userService.getUserById(userId);
-                if (user != null && user.getStatus() == 1) {
+                // 查询用户信息（优先读取本地缓存，未命中再查库）
+                UserPrincipalCache.CachedPrincipal principal = userPrincipalCache.get(userId, userService::getUserById);
+                if (principal != null && principal.isEnabled()) {
                     // 创建认证信息
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            user.getUsername(), null, Collections.singletonList(new SimpleGrantedAuthority("USER")));
+                            principal.getUsername(), null, Collections.singletonList(new SimpleGrantedAuthority("USER")));
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                     // 设置认证信息到安全上下文
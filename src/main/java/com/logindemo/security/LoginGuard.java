@@ -0,0 +1,139 @@
+package com.logindemo.security;
+
+import com.logindemo.utils.RedisUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 登录防护
+ * 账户锁定检查、失败计数、验证码阈值判断和锁定升级通过一个Lua脚本在Redis中原子执行，
+ * 每个登录阶段只需一次Redis往返，也消除了INCR与EXPIRE之间的竞争
+ */
+@Component
+public class LoginGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginGuard.class);
+
+    /**
+     * 登录失败次数Redis Key前缀（与CaptchaServiceImpl保持一致）
+     */
+    private static final String LOGIN_ATTEMPT_PREFIX = "login:attempt:";
+
+    /**
+     * 用户锁定Redis Key前缀
+     */
+    private static final String USER_LOCK_PREFIX = "user:lock:";
+
+    /**
+     * 失败计数窗口（秒）
+     */
+    private static final long ATTEMPT_WINDOW = 3600;
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LOGIN_GUARD_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/login_guard.lua"), List.class);
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Value("${login.max-attempts}")
+    private int maxLoginAttempts;
+
+    @Value("${login.lock-duration}")
+    private int lockDuration;
+
+    @Value("${captcha.require-threshold:3}")
+    private int captchaThreshold;
+
+    /**
+     * 登录前检查：是否已锁定、是否需要验证码
+     */
+    public Result check(String username) {
+        return execute("CHECK", username);
+    }
+
+    /**
+     * 记录一次登录失败，达到最大失败次数时锁定账户
+     */
+    public Result recordFailure(String username) {
+        Result result = execute("FAIL", username);
+        if (result.getState() == State.JUST_LOCKED) {
+            logger.info("用户[{}]登录失败次数超过限制({}次)，账户已被锁定{}秒",
+                    username, maxLoginAttempts, lockDuration);
+        } else {
+            logger.debug("用户[{}]登录失败，当前失败次数: {}", username, result.getAttempts());
+        }
+        return result;
+    }
+
+    /**
+     * 登录成功，清除失败记录
+     */
+    public void reset(String username) {
+        execute("RESET", username);
+    }
+
+    private Result execute(String mode, String username) {
+        List<?> reply = redisUtils.executeScript(LOGIN_GUARD_SCRIPT,
+                Arrays.asList(LOGIN_ATTEMPT_PREFIX + username, USER_LOCK_PREFIX + username),
+                mode, ATTEMPT_WINDOW, captchaThreshold, maxLoginAttempts, lockDuration);
+        if (reply == null || reply.size() < 3) {
+            // Redis不可用时放行（与原有逐条命令的降级行为一致）
+            return new Result(State.OK, 0L, 0L);
+        }
+        int state = ((Number) reply.get(0)).intValue();
+        return new Result(State.values()[state], ((Number) reply.get(1)).longValue(), ((Number) reply.get(2)).longValue());
+    }
+
+    /**
+     * 防护状态，顺序与脚本返回的状态码一致
+     */
+    public enum State {
+        /** 正常 */
+        OK,
+        /** 失败次数达到阈值，需要验证码 */
+        CAPTCHA_REQUIRED,
+        /** 账户已锁定 */
+        LOCKED,
+        /** 本次失败触发锁定 */
+        JUST_LOCKED
+    }
+
+    /**
+     * 脚本执行结果
+     */
+    public static final class Result {
+        private final State state;
+        private final long attempts;
+        private final long lockRemainingSeconds;
+
+        Result(State state, long attempts, long lockRemainingSeconds) {
+            this.state = state;
+            this.attempts = attempts;
+            this.lockRemainingSeconds = lockRemainingSeconds;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public long getAttempts() {
+            return attempts;
+        }
+
+        /**
+         * 锁定剩余时间（秒），未锁定时为0
+         */
+        public long getLockRemainingSeconds() {
+            return lockRemainingSeconds;
+        }
+    }
+}
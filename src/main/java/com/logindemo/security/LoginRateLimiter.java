@@ -0,0 +1,160 @@
+package com.logindemo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logindemo.exception.BusinessException;
+import com.logindemo.utils.RedisUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录限流器（按客户端IP和用户名两个维度）
+ * 第一级：节点本地令牌桶，纯内存判断，超限请求不产生任何网络调用；
+ * 第二级：Redis滑动窗口，一个Lua脚本同时检查两个维度，限制多节点合计的请求数。
+ * 在登录流程最前面执行，被拒绝的请求不会触达数据库和BCrypt
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    private static final String IP_KEY_PREFIX = "login:rate:ip:";
+
+    private static final String USERNAME_KEY_PREFIX = "login:rate:user:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SLIDING_WINDOW_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/sliding_window.lua"), List.class);
+
+    private final RedisUtils redisUtils;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    private final long windowMillis;
+
+    private final int ipLimit;
+
+    private final int usernameLimit;
+
+    /**
+     * 本地令牌桶，键为"ip:xxx"或"user:xxx"，长时间不访问的桶自动淘汰
+     */
+    private final Cache<String, TokenBucket> localBuckets;
+
+    /**
+     * 滑动窗口成员序号，与节点启动时间组合保证成员唯一
+     */
+    private final AtomicLong requestSequence = new AtomicLong();
+
+    private final String nodeId = Long.toString(System.nanoTime(), 36);
+
+    public LoginRateLimiter(RedisUtils redisUtils,
+                            MeterRegistry meterRegistry,
+                            @Value("${login.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${login.rate-limit.window:60}") long windowSeconds,
+                            @Value("${login.rate-limit.ip-limit:30}") int ipLimit,
+                            @Value("${login.rate-limit.username-limit:10}") int usernameLimit,
+                            @Value("${login.rate-limit.local-max-keys:100000}") long localMaxKeys) {
+        this.redisUtils = redisUtils;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.windowMillis = windowSeconds * 1000;
+        this.ipLimit = ipLimit;
+        this.usernameLimit = usernameLimit;
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(localMaxKeys)
+                .expireAfterAccess(Duration.ofSeconds(windowSeconds))
+                .build();
+        logger.info("登录限流{}，窗口: {}秒, IP上限: {}, 用户名上限: {}",
+                enabled ? "已启用" : "未启用", windowSeconds, ipLimit, usernameLimit);
+    }
+
+    /**
+     * 申请一次登录请求配额，超限时抛出429业务异常
+     */
+    public void acquire(String clientIp, String username) {
+        if (!enabled) {
+            return;
+        }
+        String ip = clientIp == null ? "unknown" : clientIp;
+        String user = username == null ? "" : username;
+
+        // 第一级：本地令牌桶
+        if (!tryAcquireLocal("ip:" + ip, ipLimit)) {
+            reject("local", "ip", ip, windowMillis / Math.max(1, ipLimit));
+        }
+        if (!tryAcquireLocal("user:" + user, usernameLimit)) {
+            reject("local", "username", user, windowMillis / Math.max(1, usernameLimit));
+        }
+
+        // 第二级：Redis滑动窗口（多节点合计）
+        long now = System.currentTimeMillis();
+        List<?> reply = redisUtils.executeScript(SLIDING_WINDOW_SCRIPT,
+                Arrays.asList(IP_KEY_PREFIX + ip, USERNAME_KEY_PREFIX + user),
+                now, windowMillis, nodeId + ":" + requestSequence.incrementAndGet(), ipLimit, usernameLimit);
+        if (reply == null || reply.size() < 2) {
+            // Redis不可用时只依赖本地限流
+            return;
+        }
+        int rejectedIndex = ((Number) reply.get(0)).intValue();
+        long retryAfterMillis = ((Number) reply.get(1)).longValue();
+        if (rejectedIndex == 1) {
+            reject("redis", "ip", ip, retryAfterMillis);
+        } else if (rejectedIndex == 2) {
+            reject("redis", "username", user, retryAfterMillis);
+        }
+    }
+
+    private boolean tryAcquireLocal(String key, int limit) {
+        TokenBucket bucket = localBuckets.get(key, k -> new TokenBucket(limit, (double) limit / windowMillis));
+        return bucket.tryAcquire(System.currentTimeMillis());
+    }
+
+    private void reject(String tier, String dimension, String value, long retryAfterMillis) {
+        meterRegistry.counter("login.rate-limit.rejected", "tier", tier, "dimension", dimension).increment();
+        long retryAfterSeconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        logger.warn("登录请求被限流，级别: {}, 维度: {}, 值: {}, 重试等待: {}秒", tier, dimension, value, retryAfterSeconds);
+        throw new BusinessException(429, "登录请求过于频繁，请" + retryAfterSeconds + "秒后再试");
+    }
+
+    /**
+     * 令牌桶：容量为窗口内上限，按"上限/窗口"的速率匀速补充
+     */
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double refillPerMilli;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, double refillPerMilli) {
+            this.capacity = capacity;
+            this.refillPerMilli = refillPerMilli;
+            this.tokens = capacity;
+            this.lastRefill = System.currentTimeMillis();
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerMilli);
+                lastRefill = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+    }
+}
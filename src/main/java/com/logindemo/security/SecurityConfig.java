@@ -34,12 +34,15 @@ public class SecurityConfig {
                 "/auth/login", 
                 "/auth/register", 
                 "/auth/validate",
+                "/auth/jwks",
+                "/auth/introspect",
                 "/auth/send-sms-code",
                 "/auth/login-by-phone",
                 "/auth/send-email-code",
                 "/auth/reset-password",
                 "/auth/wechat/qrcode",
                 "/auth/wechat/status",
+                "/auth/wechat/status/wait",
                 "/captcha/**",
                 "/swagger-ui/**", 
                 "/v3/api-docs/**"
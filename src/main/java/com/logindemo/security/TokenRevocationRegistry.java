@@ -0,0 +1,198 @@
+package com.logindemo.security;
+
+import com.logindemo.utils.RedisUtils;
+import com.logindemo.utils.VerifiedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 节点本地Token吊销索引
+ * 支持两种吊销方式，请求过滤器都只做本地内存查找，不访问Redis：
+ * 1. 单个Token吊销（登出）：记录Token标识，保留至Token过期
+ * 2. 用户级吊销纪元（修改/重置密码、删除用户）：签发时间早于纪元的该用户Token全部失效，每个用户只占一条记录
+ * 吊销记录同时写入Redis并通过发布订阅通知其他节点，定时从Redis全量同步，弥补节点重启或消息丢失
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    /**
+     * 已吊销Token有序集合Redis Key
+     */
+    private static final String REVOKED_TOKENS_KEY = "token:revoked";
+
+    /**
+     * 用户吊销纪元哈希Redis Key
+     */
+    private static final String USER_EPOCH_KEY = "token:user-epoch";
+
+    /**
+     * 吊销通知频道
+     */
+    private static final String REVOCATION_CHANNEL = "token:revoked:channel";
+
+    private static final String TOKEN_MESSAGE_PREFIX = "token:";
+
+    private static final String USER_MESSAGE_PREFIX = "user:";
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * Token最长有效期（毫秒），超过该时长的用户纪元不再有意义，可以清理
+     */
+    @Value("${jwt.refresh-expiration}")
+    private long maxTokenLifetime;
+
+    /**
+     * 已吊销Token标识 -> Token过期时间（毫秒时间戳）
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * 用户ID -> 吊销纪元（毫秒时间戳），签发时间早于纪元的Token无效
+     */
+    private final Map<Long, Long> userEpochs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        MessageListener listener = (message, pattern) -> onRevocationMessage(message.getBody());
+        listenerContainer.addMessageListener(listener, new ChannelTopic(REVOCATION_CHANNEL));
+    }
+
+    /**
+     * 吊销Token
+     */
+    public void revoke(VerifiedToken token) {
+        String tokenId = token.getTokenId();
+        long expiresAt = token.getExpiresAt();
+        revokedTokens.put(tokenId, expiresAt);
+        redisUtils.zAdd(REVOKED_TOKENS_KEY, tokenId, expiresAt);
+        redisUtils.publish(REVOCATION_CHANNEL, TOKEN_MESSAGE_PREFIX + tokenId + ":" + expiresAt);
+        logger.debug("Token已吊销，tokenId: {}", tokenId);
+    }
+
+    /**
+     * 吊销用户当前所有Token（此刻之前签发的Token全部失效）
+     */
+    public void revokeAllForUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        // 按毫秒比较（Token携带iat_ms声明），同一秒内在纪元之前签发的Token同样失效
+        long epoch = System.currentTimeMillis();
+        userEpochs.merge(userId, epoch, Math::max);
+        redisUtils.hSet(USER_EPOCH_KEY, userId.toString(), epoch);
+        redisUtils.publish(REVOCATION_CHANNEL, USER_MESSAGE_PREFIX + userId + ":" + epoch);
+        logger.info("用户Token已全部吊销，用户ID: {}", userId);
+    }
+
+    /**
+     * 判断Token是否已吊销（仅本地内存查找）
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        if (revokedTokens.containsKey(token.getTokenId())) {
+            return true;
+        }
+        Long epoch = userEpochs.get(token.getUserId());
+        return epoch != null && token.getIssuedAt() < epoch;
+    }
+
+    /**
+     * 启动后立即同步一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        resync();
+    }
+
+    /**
+     * 定时从Redis全量同步吊销记录，并清理已过期的记录
+     */
+    @Scheduled(fixedDelayString = "${token-revocation.resync-interval:60000}",
+            initialDelayString = "${token-revocation.resync-interval:60000}")
+    public void resync() {
+        long now = System.currentTimeMillis();
+        try {
+            resyncRevokedTokens(now);
+            resyncUserEpochs(now);
+        } catch (Exception e) {
+            logger.warn("同步Token吊销记录失败: {}", e.getMessage());
+        }
+        // 本地记录与Redis合并而非替换，Redis不可用期间的本地吊销不会丢失
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        userEpochs.values().removeIf(epoch -> epoch <= now - maxTokenLifetime);
+        logger.debug("Token吊销记录同步完成，Token记录数: {}, 用户纪元数: {}", revokedTokens.size(), userEpochs.size());
+    }
+
+    private void resyncRevokedTokens(long now) {
+        redisUtils.zRemoveRangeByScore(REVOKED_TOKENS_KEY, Double.NEGATIVE_INFINITY, now);
+        Set<ZSetOperations.TypedTuple<Object>> tuples =
+                redisUtils.zRangeByScoreWithScores(REVOKED_TOKENS_KEY, now, Double.POSITIVE_INFINITY);
+        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+            if (tuple.getValue() != null && tuple.getScore() != null) {
+                revokedTokens.put(tuple.getValue().toString(), tuple.getScore().longValue());
+            }
+        }
+    }
+
+    private void resyncUserEpochs(long now) {
+        List<Object> staleFields = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : redisUtils.hGetAll(USER_EPOCH_KEY).entrySet()) {
+            Long userId = Long.valueOf(entry.getKey().toString());
+            long epoch = Long.parseLong(entry.getValue().toString());
+            if (epoch <= now - maxTokenLifetime) {
+                staleFields.add(entry.getKey());
+            } else {
+                userEpochs.merge(userId, epoch, Math::max);
+            }
+        }
+        if (!staleFields.isEmpty()) {
+            redisUtils.hDelete(USER_EPOCH_KEY, staleFields.toArray());
+        }
+    }
+
+    private void onRevocationMessage(byte[] body) {
+        try {
+            Object payload = redisUtils.deserializeMessage(body);
+            if (payload == null) {
+                return;
+            }
+            String text = payload.toString();
+            int separator = text.lastIndexOf(':');
+            long value = Long.parseLong(text.substring(separator + 1));
+            if (text.startsWith(TOKEN_MESSAGE_PREFIX)) {
+                String tokenId = text.substring(TOKEN_MESSAGE_PREFIX.length(), separator);
+                if (value > System.currentTimeMillis()) {
+                    revokedTokens.put(tokenId, value);
+                }
+            } else if (text.startsWith(USER_MESSAGE_PREFIX)) {
+                Long userId = Long.valueOf(text.substring(USER_MESSAGE_PREFIX.length(), separator));
+                userEpochs.merge(userId, value, Math::max);
+            }
+        } catch (Exception e) {
+            logger.warn("解析Token吊销消息失败: {}", e.getMessage());
+        }
+    }
+}
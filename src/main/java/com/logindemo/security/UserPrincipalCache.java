@@ -0,0 +1,107 @@
+package com.logindemo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logindemo.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 已认证用户本地缓存
+ * 按用户ID缓存认证所需的最小用户信息，避免每个请求都查询users表；
+ * 用户信息变更时由UserServiceImpl主动失效，其余情况依赖TTL过期（多节点部署时TTL即为最大不一致时间）
+ */
+@Component
+public class UserPrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    private final Cache<Long, CachedPrincipal> cache;
+
+    public UserPrincipalCache(@Value("${user-cache.max-size:10000}") long maxSize,
+                              @Value("${user-cache.ttl:60}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // 暴露命中率等指标：cache.gets / cache.evictions 等，tag cache=user-principal
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-principal");
+        logger.info("用户认证缓存已初始化，最大容量: {}, TTL: {}秒", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 获取用户认证信息，未命中时通过loader加载（用户不存在时不缓存）
+     */
+    public CachedPrincipal get(Long userId, Function<Long, User> loader) {
+        return cache.get(userId, id -> {
+            User user = loader.apply(id);
+            return Objects.isNull(user) ? null : new CachedPrincipal(user.getId(), user.getUsername(), user.getStatus());
+        });
+    }
+
+    /**
+     * 失效指定用户的缓存
+     * 在事务中调用时，提交后会再失效一次，防止提交前被并发请求以旧数据回填
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+        logger.debug("用户认证缓存已失效，用户ID: {}", userId);
+    }
+
+    /**
+     * 缓存命中率
+     */
+    public double hitRate() {
+        return cache.stats().hitRate();
+    }
+
+    /**
+     * 缓存中的用户认证信息（不包含密码等敏感字段）
+     */
+    public static final class CachedPrincipal {
+        private final Long userId;
+        private final String username;
+        private final Integer status;
+
+        CachedPrincipal(Long userId, String username, Integer status) {
+            this.userId = userId;
+            this.username = username;
+            this.status = status;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public boolean isEnabled() {
+            return Objects.equals(status, 1);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.logindemo.security;
+
+import com.logindemo.mapper.UserMapper;
+import com.logindemo.utils.RedisUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * 用户名存在性过滤器（布隆过滤器）
+ * 判定"不存在"时用户名一定不存在，登录时可直接拒绝而不查询数据库；判定"可能存在"时照常查库。
+ * 启动时和定时从users表全量重建（布隆过滤器不支持删除，已删除用户名在下次重建时移除），
+ * 新增用户名时本地写入并通过发布订阅通知其他节点。发布订阅消息可能丢失，且绕过本服务写入的用户不会通知，
+ * 因此每隔catch-up-interval按created_at/updated_at增量查询新增或修改的用户名补写；同时每次增量同步向频道发布
+ * 本节点心跳，收不到自己的心跳说明订阅已断开。以下情况一律判定为可能存在（照常查库）：过滤器未就绪、
+ * 增量同步或心跳超时、订阅恢复后尚未完成一次增量同步、用户名含非可打印ASCII字符（排序规则的等价关系无法完全复现）
+ */
+@Component
+public class UsernameFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameFilter.class);
+
+    /**
+     * 新增用户名通知频道
+     */
+    private static final String USERNAME_CHANNEL = "user:username-added:channel";
+
+    /**
+     * 心跳消息前缀，以此开头的用户名在频道中被忽略，由增量同步补写
+     */
+    private static final String HEARTBEAT_PREFIX = "heartbeat ";
+
+    /**
+     * 可打印ASCII字符，只有这类用户名在过滤器中的判定与数据库排序规则完全一致
+     */
+    private static final Pattern PRINTABLE_ASCII = Pattern.compile("[\\x20-\\x7E]*");
+
+    /**
+     * 排序规则中可忽略的控制字符和格式字符
+     */
+    private static final Pattern IGNORABLE_CHARS = Pattern.compile("[\\p{Cc}\\p{Cf}]+");
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${login.username-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${login.username-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${login.username-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /**
+     * 增量同步间隔（毫秒）
+     */
+    @Value("${login.username-filter.catch-up-interval:10000}")
+    private long catchUpIntervalMillis;
+
+    /**
+     * 增量查询时间窗口向前重叠的时长（毫秒），覆盖节点间及与数据库的时钟偏差
+     */
+    @Value("${login.username-filter.catch-up-overlap:60000}")
+    private long catchUpOverlapMillis;
+
+    private volatile BloomFilter filter;
+
+    /**
+     * 本节点心跳标识
+     */
+    private final String heartbeat = HEARTBEAT_PREFIX + UUID.randomUUID();
+
+    /**
+     * 下次增量查询的起点（最近一次成功的重建或增量同步的开始时间）
+     */
+    private volatile LocalDateTime syncedSince;
+
+    /**
+     * 最近一次成功增量同步的开始时间
+     */
+    private volatile long lastCatchUpAt;
+
+    /**
+     * 最近一次收到本节点心跳的时间
+     */
+    private volatile long lastHeartbeatAt;
+
+    /**
+     * 订阅最近一次恢复（心跳超时后重新收到）的时间，之后需要再完成一次增量同步才采信过滤器
+     */
+    private volatile long listenerRecoveredAt;
+
+    /**
+     * 最近新增的用户名 -> 新增时间，重建期间新增的用户名在切换后补写，避免丢失
+     */
+    private final Map<String, Long> recentAdditions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        MessageListener listener = (message, pattern) -> {
+            Object payload = redisUtils.deserializeMessage(message.getBody());
+            if (payload == null) {
+                return;
+            }
+            String value = payload.toString();
+            if (value.equals(heartbeat)) {
+                long now = System.currentTimeMillis();
+                if (now - lastHeartbeatAt > staleAfterMillis()) {
+                    listenerRecoveredAt = now;
+                }
+                lastHeartbeatAt = now;
+            } else if (!value.startsWith(HEARTBEAT_PREFIX)) {
+                addLocal(value);
+            }
+        };
+        listenerContainer.addMessageListener(listener, new ChannelTopic(USERNAME_CHANNEL));
+    }
+
+    /**
+     * 判断用户名是否可能存在，返回false时用户名一定不存在
+     */
+    public boolean mightExist(String username) {
+        BloomFilter current = filter;
+        if (!enabled || current == null || username == null || !isInSync()
+                || !PRINTABLE_ASCII.matcher(username).matches()) {
+            return true;
+        }
+        boolean mightExist = current.mightContain(normalize(username));
+        if (!mightExist) {
+            meterRegistry.counter("login.username-filter.rejected").increment();
+        }
+        return mightExist;
+    }
+
+    /**
+     * 新增用户名（注册、添加用户、修改用户名后调用）
+     */
+    public void add(String username) {
+        if (!enabled || username == null) {
+            return;
+        }
+        addLocal(username);
+        redisUtils.publish(USERNAME_CHANNEL, username);
+    }
+
+    private void addLocal(String username) {
+        long now = System.currentTimeMillis();
+        BloomFilter current = filter;
+        for (String key : keys(username)) {
+            recentAdditions.put(key, now);
+            if (current != null) {
+                current.put(key);
+            }
+        }
+    }
+
+    /**
+     * 最近的增量同步和心跳都未超时，且订阅恢复后已完成增量同步时，过滤器的"不存在"判定才可采信
+     */
+    private boolean isInSync() {
+        long now = System.currentTimeMillis();
+        long staleAfter = staleAfterMillis();
+        return now - lastCatchUpAt <= staleAfter
+                && now - lastHeartbeatAt <= staleAfter
+                && lastCatchUpAt >= listenerRecoveredAt;
+    }
+
+    private long staleAfterMillis() {
+        return catchUpIntervalMillis * 3;
+    }
+
+    /**
+     * 增量补写新增或修改的用户名，并发布本节点心跳检查订阅是否正常
+     */
+    @Scheduled(fixedDelayString = "${login.username-filter.catch-up-interval:10000}",
+            initialDelayString = "${login.username-filter.catch-up-interval:10000}")
+    public void catchUp() {
+        LocalDateTime since = syncedSince;
+        if (!enabled || filter == null || since == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        LocalDateTime startTime = LocalDateTime.now();
+        try {
+            List<String> usernames = userMapper.selectUsernamesChangedSince(since.minusNanos(catchUpOverlapMillis * 1_000_000));
+            usernames.forEach(this::addLocal);
+            syncedSince = startTime;
+            lastCatchUpAt = start;
+            if (!usernames.isEmpty()) {
+                logger.debug("用户名过滤器增量同步，用户名数: {}", usernames.size());
+            }
+        } catch (Exception e) {
+            // 增量同步失败时过滤器很快判定为超时，登录照常查库
+            logger.warn("用户名过滤器增量同步失败: {}", e.getMessage());
+        }
+        redisUtils.publish(USERNAME_CHANNEL, heartbeat);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 从users表全量重建
+     */
+    @Scheduled(fixedDelayString = "${login.username-filter.rebuild-interval:3600000}",
+            initialDelayString = "${login.username-filter.rebuild-interval:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        LocalDateTime startTime = LocalDateTime.now();
+        try {
+            List<String> usernames = userMapper.selectAllUsernames();
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, usernames.size() * 2L), falsePositiveRate);
+            for (String username : usernames) {
+                for (String key : keys(username)) {
+                    rebuilt.put(key);
+                }
+            }
+            recentAdditions.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+            // 切换前并发写入旧过滤器的用户名再补写一次
+            recentAdditions.keySet().forEach(rebuilt::put);
+            recentAdditions.values().removeIf(addedAt -> addedAt < start);
+            if (syncedSince == null) {
+                syncedSince = startTime;
+            }
+            logger.info("用户名过滤器重建完成，用户名数: {}, 位数: {}, 哈希函数数: {}, 耗时: {}ms",
+                    usernames.size(), rebuilt.bitSize, rebuilt.hashCount, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // 重建失败时保留原过滤器（首次失败则保持未就绪，登录照常查库）
+            logger.warn("用户名过滤器重建失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按users表的排序规则（utf8mb4_0900_ai_ci，不区分大小写和重音）归一化用户名
+     */
+    private static String normalize(String username) {
+        String decomposed = Normalizer.normalize(username, Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 已存在用户名写入过滤器的键：归一化结果，以及非ASCII用户名按排序规则中常见的展开和等价字母
+     * 折叠为ASCII的结果（如straße与strasse在数据库中相等），使ASCII的登录用户名不会被误判为不存在。
+     * 多写入的键只会增加误判为"可能存在"的概率
+     */
+    private static List<String> keys(String username) {
+        String normalized = normalize(username);
+        if (PRINTABLE_ASCII.matcher(normalized).matches()) {
+            return List.of(normalized);
+        }
+        StringBuilder folded = new StringBuilder(normalized.length());
+        for (char c : IGNORABLE_CHARS.matcher(normalized).replaceAll("").toCharArray()) {
+            switch (c) {
+                case 'ß': folded.append("ss"); break;
+                case 'æ': folded.append("ae"); break;
+                case 'œ': folded.append("oe"); break;
+                case 'þ': folded.append("th"); break;
+                case 'ø': folded.append('o'); break;
+                case 'đ': case 'ð': folded.append('d'); break;
+                case 'ł': folded.append('l'); break;
+                case 'ħ': folded.append('h'); break;
+                case 'ŧ': folded.append('t'); break;
+                case 'ı': folded.append('i'); break;
+                default: folded.append(c); break;
+            }
+        }
+        return List.of(normalized, folded.toString());
+    }
+
+    /**
+     * 布隆过滤器，位数组使用AtomicLongArray，支持并发写入和读取
+     */
+    private static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitSize;
+        private final int hashCount;
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitSize = Math.max(64, m);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((bitSize + 63) / 64));
+        }
+
+        void put(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, bitSize);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, bitSize);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * FNV-1a 64位哈希，再经过SplitMix64混淆
+         */
+        private static long hash(String value) {
+            long h = 0xCBF29CE484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                h ^= b & 0xFF;
+                h *= 0x100000001B3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
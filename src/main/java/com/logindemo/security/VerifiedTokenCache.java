@@ -0,0 +1,99 @@
+package com.logindemo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.logindemo.utils.JwtUtils;
+import com.logindemo.utils.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验签Token缓存
+ * 以Token摘要为键缓存JwtUtils.verify的结果，同一Token重复出现时跳过验签；
+ * 每个条目在Token自身的exp时刻过期，登出时由UserServiceImpl主动失效。
+ * 注意：缓存键必须覆盖整个Token字符串（含签名），不能使用jti，否则伪造的同jti Token会命中缓存
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private final JwtUtils jwtUtils;
+
+    private final boolean enabled;
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(JwtUtils jwtUtils,
+                              @Value("${jwt.token-cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.token-cache.max-size:50000}") long maxSize,
+                              MeterRegistry meterRegistry) {
+        this.jwtUtils = jwtUtils;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        return remainingNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime,
+                                                  long currentDuration) {
+                        return remainingNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verified-token");
+        logger.info("Token验签缓存{}，最大容量: {}", enabled ? "已启用" : "未启用", maxSize);
+    }
+
+    /**
+     * 验证Token，优先读取缓存
+     * @return 已验签的Token视图，Token无效或已过期时返回null
+     */
+    public VerifiedToken verify(String token) {
+        if (!enabled) {
+            return jwtUtils.verify(token);
+        }
+        String key = JwtUtils.digest(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            // 过期清理有一定延迟，这里再校验一次
+            return cached.isExpired() ? null : cached;
+        }
+        VerifiedToken verifiedToken = jwtUtils.verify(token);
+        if (verifiedToken != null) {
+            cache.put(key, verifiedToken);
+        }
+        return verifiedToken;
+    }
+
+    /**
+     * 使Token缓存失效（Token被吊销时调用）
+     */
+    public void invalidate(String token) {
+        if (enabled) {
+            cache.invalidate(JwtUtils.digest(token));
+        }
+    }
+
+    private static long remainingNanos(VerifiedToken token) {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, token.getExpiresAt() - System.currentTimeMillis()));
+    }
+}
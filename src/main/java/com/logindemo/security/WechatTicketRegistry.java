@@ -0,0 +1,514 @@
+package com.logindemo.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logindemo.model.dto.AuthResponse;
+import com.logindemo.model.dto.WechatStatusResponse;
+import com.logindemo.utils.RedisUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 微信扫码登录票据状态机
+ * 票据状态：waiting -> scanned -> confirmed，超过有效期未确认则为expired。
+ * 状态保存在Redis哈希中（wechat:ticket:{ticket}），迁移通过Lua脚本比较并设置，状态变化通过发布订阅通知其他节点，
+ * 因此轮询请求可以落在任意节点；本地只缓存票据状态和挂起的长轮询请求，到期后淘汰。
+ * 发布订阅消息可能丢失，查询和长轮询开始、超时时都从Redis哈希重新读取未终止票据的状态，不依赖本地缓存。
+ * 长轮询请求以CompletableFuture挂起，不占用线程，状态变化时立即唤醒；
+ * 确认后的认证响应只交付一次（从Redis哈希中原子取出），之后的查询只返回confirmed状态。
+ * Redis不可用时退化为单节点内存状态机
+ */
+@Component
+public class WechatTicketRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(WechatTicketRegistry.class);
+
+    private static final String TICKET_KEY_PREFIX = "wechat:ticket:";
+
+    /**
+     * 票据状态变化通知频道，消息格式：ticket:status
+     */
+    private static final String TICKET_CHANNEL = "wechat:ticket:channel";
+
+    private static final String TICKET_PREFIX = "WX_";
+
+    /**
+     * 票据随机部分字节数（128位，Base64URL编码后22个字符）
+     */
+    private static final int TICKET_RANDOM_BYTES = 16;
+
+    /**
+     * 过期票据保留时长（毫秒），期间查询返回expired，之后移除
+     */
+    private static final long EXPIRED_RETENTION = 60000;
+
+    private static final RedisScript<Long> UPDATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/wechat_ticket.lua"), Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> GET_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/wechat_ticket.lua"), List.class);
+
+    private static final RedisScript<String> TAKE_AUTH_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/wechat_ticket.lua"), String.class);
+
+    private static final SecureRandom TICKET_RANDOM = new SecureRandom();
+
+    /**
+     * 票据状态
+     */
+    public enum Status {
+        WAITING("waiting"),
+        SCANNED("scanned"),
+        CONFIRMED("confirmed"),
+        EXPIRED("expired");
+
+        private final String value;
+
+        Status(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * 是否为终止状态（不会再变化）
+         */
+        public boolean isTerminal() {
+            return this == CONFIRMED || this == EXPIRED;
+        }
+
+        public static Status fromValue(String value) {
+            for (Status status : values()) {
+                if (status.value.equals(value)) {
+                    return status;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        MessageListener listener = (message, pattern) -> {
+            Object payload = redisUtils.deserializeMessage(message.getBody());
+            if (payload != null) {
+                onStatusMessage(payload.toString());
+            }
+        };
+        listenerContainer.addMessageListener(listener, new ChannelTopic(TICKET_CHANNEL));
+    }
+
+    /**
+     * 创建并登记新票据，票据号为128位安全随机数，登记时在Redis中检查唯一性
+     * @return 票据号
+     */
+    public String create(long ttlMillis) {
+        while (true) {
+            String ticket = newTicketId();
+            long now = System.currentTimeMillis();
+            Ticket t = new Ticket(ticket, now, now + ttlMillis, true);
+            if (tickets.putIfAbsent(ticket, t) != null) {
+                continue;
+            }
+            Long registered = redisUtils.executeScript(UPDATE_SCRIPT, Collections.singletonList(ticketKey(ticket)),
+                    "REGISTER", now, now + ttlMillis, ttlMillis + EXPIRED_RETENTION);
+            if (registered != null && registered == 0) {
+                tickets.remove(ticket);
+                continue;
+            }
+            return ticket;
+        }
+    }
+
+    /**
+     * 状态迁移（仅当当前状态为expected时）
+     * @return 是否迁移成功
+     */
+    public boolean transition(String ticket, Status expected, Status next) {
+        return transition(ticket, next, null, expected);
+    }
+
+    /**
+     * 确认登录，保存待交付的认证响应并唤醒等待者
+     * @return 是否确认成功（票据不存在、已确认或已过期时返回false）
+     */
+    public boolean confirm(String ticket, AuthResponse authResponse) {
+        return transition(ticket, Status.CONFIRMED, authResponse, Status.WAITING, Status.SCANNED);
+    }
+
+    /**
+     * 立即查询状态
+     */
+    public WechatStatusResponse poll(String ticket) {
+        Ticket t = find(ticket);
+        if (t == null) {
+            return response(Status.EXPIRED, null);
+        }
+        refresh(t);
+        return snapshot(t);
+    }
+
+    /**
+     * 等待状态变化（长轮询）
+     * 当前状态与lastStatus不同或已终止时立即返回，否则挂起直到状态变化或超时（超时返回当前状态）
+     */
+    public CompletableFuture<WechatStatusResponse> await(String ticket, String lastStatus, long timeoutMillis) {
+        Ticket t = find(ticket);
+        if (t == null) {
+            return CompletableFuture.completedFuture(response(Status.EXPIRED, null));
+        }
+        refresh(t);
+        CompletableFuture<WechatStatusResponse> future = t.await(lastStatus, timeoutMillis);
+        if (future == null) {
+            return CompletableFuture.completedFuture(snapshot(t));
+        }
+        // 超时（结果为null）时再从Redis读取一次，避免状态变化通知丢失时返回过时的状态
+        return future.thenApplyAsync(result -> {
+            if (result != null) {
+                return result;
+            }
+            refresh(t);
+            return snapshot(t);
+        });
+    }
+
+    /**
+     * 本节点创建且未结束（waiting、scanned）的票据，供扫码流程推进状态
+     */
+    public List<TicketView> pendingTickets() {
+        List<TicketView> views = new ArrayList<>();
+        for (Ticket t : tickets.values()) {
+            Status status = t.status;
+            if (t.owned && !status.isTerminal()) {
+                views.add(new TicketView(t.ticket, t.createdAt, status));
+            }
+        }
+        return views;
+    }
+
+    /**
+     * 过期未确认的票据置为expired并唤醒等待者，清理保留期已过的票据
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void expireTickets() {
+        long now = System.currentTimeMillis();
+        for (Ticket t : tickets.values()) {
+            if (now >= t.expiresAt && !t.status.isTerminal()) {
+                transition(t.ticket, Status.EXPIRED, null, Status.WAITING, Status.SCANNED);
+            }
+        }
+        tickets.values().removeIf(t -> now >= t.expiresAt + EXPIRED_RETENTION);
+    }
+
+    /**
+     * 状态迁移：先在Redis中比较并设置，成功后更新本地状态、唤醒等待者并通知其他节点
+     */
+    private boolean transition(String ticket, Status next, AuthResponse authResponse, Status... expected) {
+        Ticket t = tickets.get(ticket);
+        if (t == null) {
+            return false;
+        }
+        String authJson = authResponse != null ? toJson(authResponse) : "";
+        Object[] args = new Object[expected.length + 3];
+        args[0] = "TRANSITION";
+        args[1] = next.getValue();
+        args[2] = authJson;
+        for (int i = 0; i < expected.length; i++) {
+            args[i + 3] = expected[i].getValue();
+        }
+        Long result = redisUtils.executeScript(UPDATE_SCRIPT, Collections.singletonList(ticketKey(ticket)), args);
+        if (result == null) {
+            // Redis不可用，仅在本节点迁移，认证响应保存在本地
+            return advance(t, next, authResponse, expected);
+        }
+        if (result == 0) {
+            // 已被其他节点迁移（或Redis中已淘汰），以Redis为准刷新本地状态
+            Status current = loadStatus(ticket);
+            advance(t, current != null ? current : Status.EXPIRED, null);
+            return false;
+        }
+        advance(t, next, null);
+        redisUtils.publish(TICKET_CHANNEL, ticket + ":" + next.getValue());
+        return true;
+    }
+
+    /**
+     * 其他节点的状态变化通知，只处理本地缓存中的票据
+     */
+    private void onStatusMessage(String payload) {
+        int separator = payload.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        Ticket t = tickets.get(payload.substring(0, separator));
+        Status status = Status.fromValue(payload.substring(separator + 1));
+        if (t != null && status != null) {
+            advance(t, status, null);
+        }
+    }
+
+    /**
+     * 更新本地状态并唤醒等待者，确认后的认证响应交给第一个成功完成的等待者，没有等待者时留待下次查询
+     * @param expected 允许的当前状态，为空时只要当前状态未终止且不同于next即可
+     */
+    private boolean advance(Ticket t, Status next, AuthResponse localAuth, Status... expected) {
+        List<CompletableFuture<WechatStatusResponse>> woken = t.advance(next, localAuth, expected);
+        if (woken == null) {
+            return false;
+        }
+        logger.debug("微信登录票据状态变更，ticket: {}, status: {}", t.ticket, next.getValue());
+        AuthResponse auth = next == Status.CONFIRMED && !woken.isEmpty() ? takeAuth(t) : null;
+        for (CompletableFuture<WechatStatusResponse> waiter : woken) {
+            // 已超时的等待者complete返回false
+            if (auth != null && waiter.complete(response(next, auth))) {
+                auth = null;
+            } else {
+                waiter.complete(response(next, null));
+            }
+        }
+        if (auth != null) {
+            t.restoreAuth(auth);
+        }
+        return true;
+    }
+
+    /**
+     * 查找票据，本地未缓存时从Redis加载（票据可能由其他节点创建）
+     */
+    private Ticket find(String ticket) {
+        Ticket t = tickets.get(ticket);
+        if (t != null || ticket == null || !ticket.startsWith(TICKET_PREFIX)) {
+            return t;
+        }
+        List<?> values = redisUtils.executeScript(GET_SCRIPT, Collections.singletonList(ticketKey(ticket)), "GET");
+        if (values == null || values.size() < 3) {
+            return null;
+        }
+        Status status = Status.fromValue(String.valueOf(values.get(0)));
+        if (status == null) {
+            return null;
+        }
+        long createdAt = Long.parseLong(String.valueOf(values.get(1)));
+        long expiresAt = Long.parseLong(String.valueOf(values.get(2)));
+        Ticket loaded = new Ticket(ticket, createdAt, expiresAt, false);
+        loaded.advance(status, null);
+        if (System.currentTimeMillis() >= expiresAt) {
+            loaded.advance(Status.EXPIRED, null);
+        }
+        Ticket existing = tickets.putIfAbsent(ticket, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * 从Redis哈希重新读取未终止票据的状态；Redis不可用或票据不在Redis中（Redis不可用时创建）时保留本地状态
+     */
+    private void refresh(Ticket t) {
+        if (t.status.isTerminal()) {
+            return;
+        }
+        Status status = loadStatus(t.ticket);
+        if (status != null) {
+            advance(t, status, null);
+        }
+    }
+
+    private Status loadStatus(String ticket) {
+        List<?> values = redisUtils.executeScript(GET_SCRIPT, Collections.singletonList(ticketKey(ticket)), "GET");
+        return values == null || values.isEmpty() ? null : Status.fromValue(String.valueOf(values.get(0)));
+    }
+
+    /**
+     * 当前状态快照，确认状态下取出待交付的认证响应
+     */
+    private WechatStatusResponse snapshot(Ticket t) {
+        Status status = t.status;
+        return response(status, status == Status.CONFIRMED ? takeAuth(t) : null);
+    }
+
+    /**
+     * 取出待交付的认证响应：先取本地（Redis不可用时保存的），再从Redis哈希中原子取出
+     */
+    private AuthResponse takeAuth(Ticket t) {
+        AuthResponse local = t.takeLocalAuth();
+        if (local != null) {
+            return local;
+        }
+        String json = redisUtils.executeScript(TAKE_AUTH_SCRIPT,
+                Collections.singletonList(ticketKey(t.ticket)), "TAKE_AUTH");
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, AuthResponse.class);
+        } catch (JsonProcessingException e) {
+            logger.error("解析微信登录认证响应失败，ticket: {}", t.ticket, e);
+            return null;
+        }
+    }
+
+    private String toJson(AuthResponse authResponse) {
+        try {
+            return objectMapper.writeValueAsString(authResponse);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化微信登录认证响应失败", e);
+        }
+    }
+
+    private static String newTicketId() {
+        byte[] bytes = new byte[TICKET_RANDOM_BYTES];
+        TICKET_RANDOM.nextBytes(bytes);
+        return TICKET_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String ticketKey(String ticket) {
+        return TICKET_KEY_PREFIX + ticket;
+    }
+
+    private static WechatStatusResponse response(Status status, AuthResponse authResponse) {
+        WechatStatusResponse response = new WechatStatusResponse();
+        response.setStatus(status.getValue());
+        response.setAuthResponse(authResponse);
+        return response;
+    }
+
+    /**
+     * 票据只读视图
+     */
+    public static final class TicketView {
+        private final String ticket;
+        private final long createdAt;
+        private final Status status;
+
+        TicketView(String ticket, long createdAt, Status status) {
+            this.ticket = ticket;
+            this.createdAt = createdAt;
+            this.status = status;
+        }
+
+        public String getTicket() {
+            return ticket;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * 本地票据缓存，状态与等待者列表在对象锁内修改
+     */
+    private static final class Ticket {
+        private final String ticket;
+        private final long createdAt;
+        private final long expiresAt;
+        /**
+         * 是否由本节点创建（由创建节点推进扫码流程）
+         */
+        private final boolean owned;
+        private volatile Status status = Status.WAITING;
+        /**
+         * Redis不可用时保存在本地的待交付认证响应，交付后置为null
+         */
+        private AuthResponse pendingAuth;
+        private final List<CompletableFuture<WechatStatusResponse>> waiters = new ArrayList<>();
+
+        Ticket(String ticket, long createdAt, long expiresAt, boolean owned) {
+            this.ticket = ticket;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+            this.owned = owned;
+        }
+
+        /**
+         * 迁移到next并取出所有等待者
+         * @return 被唤醒的等待者，未迁移时返回null
+         */
+        synchronized List<CompletableFuture<WechatStatusResponse>> advance(Status next, AuthResponse localAuth,
+                                                                           Status... expected) {
+            if (expected.length > 0) {
+                boolean matched = false;
+                for (Status s : expected) {
+                    matched |= status == s;
+                }
+                if (!matched) {
+                    return null;
+                }
+            } else if (status.isTerminal() || status == next) {
+                return null;
+            }
+            status = next;
+            if (localAuth != null) {
+                pendingAuth = localAuth;
+            }
+            List<CompletableFuture<WechatStatusResponse>> woken = new ArrayList<>(waiters);
+            waiters.clear();
+            return woken;
+        }
+
+        synchronized AuthResponse takeLocalAuth() {
+            AuthResponse auth = pendingAuth;
+            pendingAuth = null;
+            return auth;
+        }
+
+        synchronized void restoreAuth(AuthResponse auth) {
+            pendingAuth = auth;
+        }
+
+        /**
+         * 挂起等待状态变化
+         * @return 等待中的Future（超时时结果为null），状态已与lastStatus不同或已终止时返回null（由调用方立即返回快照）
+         */
+        synchronized CompletableFuture<WechatStatusResponse> await(String lastStatus, long timeoutMillis) {
+            if (!status.getValue().equals(lastStatus) || status.isTerminal()) {
+                return null;
+            }
+            CompletableFuture<WechatStatusResponse> future = new CompletableFuture<>();
+            waiters.add(future);
+            // 超时以null完成，由调用方重新读取状态
+            future.completeOnTimeout(null, timeoutMillis, TimeUnit.MILLISECONDS);
+            return future.whenComplete((result, ex) -> removeWaiter(future));
+        }
+
+        private synchronized void removeWaiter(CompletableFuture<WechatStatusResponse> future) {
+            waiters.remove(future);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.logindemo.service;
 
 import com.logindemo.model.AuditLog;
+import com.logindemo.model.AuditLogRollupCount;
+import com.logindemo.model.dto.AuditLogPage;
+import com.logindemo.model.dto.AuditLogTotal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -36,10 +39,39 @@ public interface AuditLogService {
                                 String status, LocalDateTime startTime, LocalDateTime endTime,
                                 Integer page, Integer pageSize);
     
+    /**
+     * 分页查询审计日志
+     * cursor为空时按页码分页（仅适用于浅分页），否则从游标位置按(created_at, id)继续查询
+     */
+    AuditLogPage queryAuditLogs(Long userId, String username, String operationType,
+                                String status, LocalDateTime startTime, LocalDateTime endTime,
+                                Integer page, Integer pageSize, String cursor);
+    
     /**
      * 统计审计日志数量
      */
     Long countAuditLogs(Long userId, String username, String operationType, 
                        String status, LocalDateTime startTime, LocalDateTime endTime);
+    
+    /**
+     * 按指定方式统计审计日志数量
+     * @param countMode 统计方式：exact, capped, estimated, none，为空时使用配置的默认方式
+     */
+    AuditLogTotal countAuditLogs(Long userId, String username, String operationType,
+                                 String status, LocalDateTime startTime, LocalDateTime endTime,
+                                 String countMode);
+    
+    /**
+     * 查询汇总计数（按分钟或按小时），供数据看板使用
+     * @param granularity 时间粒度：minute, hour
+     * @param userId 用户ID，仅支持hour粒度
+     */
+    List<AuditLogRollupCount> getAuditLogStats(String granularity, LocalDateTime startTime, LocalDateTime endTime,
+                                               Long userId, String operationType, String status);
+    
+    /**
+     * 在后台从audit_logs重建时间范围内的汇总计数
+     * @return 实际重建的时间范围描述
+     */
+    String startRollupBackfill(LocalDateTime startTime, LocalDateTime endTime);
 }
-
@@ -5,6 +5,7 @@ import com.logindemo.model.Menu;
 import com.logindemo.model.dto.AuthResponse;
 import com.logindemo.model.dto.LoginRequest;
 import com.logindemo.model.dto.RegisterRequest;
+import com.logindemo.model.dto.TokenIntrospectionResponse;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
@@ -48,6 +49,11 @@ public interface UserService {
      * 验证Token
      */
     boolean validateToken(String token);
+
+    /**
+     * 批量校验Token（吊销状态通过一次Redis管道查询）
+     */
+    List<TokenIntrospectionResponse> introspectTokens(List<String> tokens);
     
     /**
      * 获取所有用户列表
@@ -103,6 +109,12 @@ public interface UserService {
      * 查询微信扫码状态
      */
     com.logindemo.model.dto.WechatStatusResponse getWechatStatus(String ticket);
+
+    /**
+     * 等待微信扫码状态变化（长轮询），状态与lastStatus不同时立即返回，否则等待至状态变化或超时
+     */
+    java.util.concurrent.CompletableFuture<com.logindemo.model.dto.WechatStatusResponse> waitWechatStatus(
+            String ticket, String lastStatus, long timeoutMillis);
     
     /**
      * 发送邮箱验证码（用于密码找回）
@@ -0,0 +1,39 @@
+package com.logindemo.service;
+
+/**
+ * 验证码存储接口（短信、邮箱验证码）
+ * 实现需保证：验证码按TTL自动过期；同一账号在重发间隔内不能重复签发；
+ * 校验成功即消费（原子操作，同一验证码只能成功使用一次），连续校验失败达到上限后作废
+ */
+public interface VerificationCodeStore {
+
+    /**
+     * 保存验证码
+     * @param type 验证码类型：sms_code, email_code
+     * @param account 手机号或邮箱
+     * @param code 验证码
+     * @return 是否保存成功，重发间隔内返回false
+     */
+    boolean save(String type, String account, String code);
+
+    /**
+     * 校验并消费验证码
+     * @param type 验证码类型
+     * @param account 手机号或邮箱
+     * @param code 用户输入的验证码
+     * @return 校验结果
+     */
+    VerifyResult verifyAndConsume(String type, String account, String code);
+
+    /**
+     * 验证码校验结果
+     */
+    enum VerifyResult {
+        /** 校验通过，验证码已消费 */
+        SUCCESS,
+        /** 验证码不存在、已过期或已使用 */
+        NOT_FOUND,
+        /** 验证码错误 */
+        MISMATCH
+    }
+}
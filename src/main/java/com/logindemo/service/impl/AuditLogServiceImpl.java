@@ -1,17 +1,28 @@
 package com.logindemo.service.impl;
 
+import com.logindemo.exception.BusinessException;
 import com.logindemo.mapper.AuditLogMapper;
+import com.logindemo.mapper.AuditLogRollupMapper;
 import com.logindemo.model.AuditLog;
+import com.logindemo.model.AuditLogRollupCount;
+import com.logindemo.model.dto.AuditLogPage;
+import com.logindemo.model.dto.AuditLogTotal;
 import com.logindemo.service.AuditLogService;
+import com.logindemo.task.AuditLogRollupBackfill;
+import com.logindemo.task.AuditLogWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * 审计日志服务实现类
@@ -23,9 +34,44 @@ public class AuditLogServiceImpl implements AuditLogService {
     
     @Autowired
     private AuditLogMapper auditLogMapper;
+
+    @Autowired
+    private AuditLogRollupMapper auditLogRollupMapper;
+    
+    @Autowired
+    private AuditLogWriter auditLogWriter;
     
+    @Autowired
+    private AuditLogRollupBackfill auditLogRollupBackfill;
+
+    /**
+     * 页码分页允许的最大偏移量，更深的翻页需使用游标
+     */
+    @Value("${audit-log.query.max-offset:10000}")
+    private int maxOffset;
+    
+    /**
+     * 未指定统计方式时使用的默认方式
+     */
+    @Value("${audit-log.query.count-mode:capped}")
+    private String defaultCountMode;
+    
+    /**
+     * capped方式的计数上限
+     */
+    @Value("${audit-log.query.count-cap:10000}")
+    private int countCap;
+    
+    /**
+     * 单次统计查询允许的最大时间桶数
+     */
+    @Value("${audit-log.rollup.max-buckets:1440}")
+    private int maxBuckets;
+    
+    /**
+     * 记录审计日志，交给异步写入器批量写库，不在调用方线程中开启事务
+     */
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void log(String operationType, String operationDesc, Long userId, String username,
                     String ipAddress, String userAgent, String status, String errorMessage,
                     String requestMethod, String requestPath) {
@@ -43,8 +89,8 @@ public class AuditLogServiceImpl implements AuditLogService {
             auditLog.setRequestPath(requestPath);
             auditLog.setCreatedAt(LocalDateTime.now());
             
-            auditLogMapper.insert(auditLog);
-            logger.debug("审计日志已记录: {} - {} - {}", operationType, username, status);
+            auditLogWriter.submit(auditLog);
+            logger.debug("审计日志已提交: {} - {} - {}", operationType, username, status);
         } catch (Exception e) {
             // 审计日志记录失败不应该影响主业务，只记录错误日志
             logger.error("记录审计日志失败", e);
@@ -82,11 +128,145 @@ public class AuditLogServiceImpl implements AuditLogService {
                                               startTime, endTime, offset, pageSize);
     }
     
+    @Override
+    public AuditLogPage queryAuditLogs(Long userId, String username, String operationType,
+                                       String status, LocalDateTime startTime, LocalDateTime endTime,
+                                       Integer page, Integer pageSize, String cursor) {
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 10;
+        }
+        // 多取一条用于判断是否还有下一页
+        List<AuditLog> logs;
+        if (cursor != null && !cursor.isEmpty()) {
+            AuditLog position = decodeCursor(cursor);
+            logs = auditLogMapper.selectAuditLogsAfter(userId, username, operationType, status, startTime, endTime,
+                                                       position.getCreatedAt(), position.getId(), pageSize + 1);
+        } else {
+            if (page == null || page < 1) {
+                page = 1;
+            }
+            long offset = (long) (page - 1) * pageSize;
+            if (offset > maxOffset) {
+                throw new BusinessException(400, "页码过大，请使用游标（cursor）翻页");
+            }
+            logs = auditLogMapper.selectAuditLogs(userId, username, operationType, status,
+                                                  startTime, endTime, (int) offset, pageSize + 1);
+        }
+        
+        AuditLogPage result = new AuditLogPage();
+        result.setHasMore(logs.size() > pageSize);
+        if (result.isHasMore()) {
+            logs = logs.subList(0, pageSize);
+            result.setNextCursor(encodeCursor(logs.get(logs.size() - 1)));
+        }
+        result.setList(logs);
+        return result;
+    }
+    
     @Override
     public Long countAuditLogs(Long userId, String username, String operationType,
                                String status, LocalDateTime startTime, LocalDateTime endTime) {
         return auditLogMapper.countAuditLogs(userId, username, operationType, status,
                                             startTime, endTime);
     }
+    
+    @Override
+    public AuditLogTotal countAuditLogs(Long userId, String username, String operationType,
+                                        String status, LocalDateTime startTime, LocalDateTime endTime,
+                                        String countMode) {
+        AuditLogTotal.Mode mode = AuditLogTotal.Mode.parse(
+                countMode == null || countMode.isEmpty() ? defaultCountMode : countMode);
+        boolean usernameFiltered = username != null && !username.isEmpty();
+        if (mode == AuditLogTotal.Mode.ESTIMATED && usernameFiltered) {
+            // 汇总计数只有用户ID维度，不支持按用户名模糊匹配
+            mode = AuditLogTotal.Mode.CAPPED;
+        }
+        
+        AuditLogTotal result = new AuditLogTotal();
+        result.setMode(mode);
+        switch (mode) {
+            case EXACT:
+                result.setTotal(auditLogMapper.countAuditLogs(userId, username, operationType, status,
+                                                              startTime, endTime));
+                break;
+            case CAPPED:
+                long count = auditLogMapper.countAuditLogsCapped(userId, username, operationType, status,
+                                                                 startTime, endTime, countCap + 1);
+                result.setCapped(count > countCap);
+                result.setTotal(Math.min(count, countCap));
+                break;
+            case ESTIMATED:
+                // 起止时间所在的整小时都计入，部分覆盖的小时按整小时估算
+                LocalDateTime startHour = startTime != null ? startTime.truncatedTo(ChronoUnit.HOURS) : null;
+                result.setTotal(userId != null
+                        ? auditLogRollupMapper.sumUserHourlyCounts(userId, operationType, status, startHour, endTime)
+                        : auditLogRollupMapper.sumHourlyCounts(operationType, status, startHour, endTime));
+                break;
+            default:
+                break;
+        }
+        return result;
+    }
+    
+    @Override
+    public List<AuditLogRollupCount> getAuditLogStats(String granularity, LocalDateTime startTime, LocalDateTime endTime,
+                                                      Long userId, String operationType, String status) {
+        ChronoUnit unit;
+        switch (granularity == null ? "hour" : granularity.trim().toLowerCase(Locale.ROOT)) {
+            case "minute":
+                unit = ChronoUnit.MINUTES;
+                break;
+            case "hour":
+                unit = ChronoUnit.HOURS;
+                break;
+            default:
+                throw new BusinessException(400, "不支持的时间粒度: " + granularity);
+        }
+        LocalDateTime end = endTime != null ? endTime : LocalDateTime.now();
+        LocalDateTime start = (startTime != null ? startTime : end.minusHours(24)).truncatedTo(unit);
+        if (!start.isBefore(end)) {
+            throw new BusinessException(400, "开始时间必须早于结束时间");
+        }
+        if (unit.between(start, end) >= maxBuckets) {
+            throw new BusinessException(400, "时间范围过大，最多查询" + maxBuckets + "个时间桶，请缩小范围或使用更粗的粒度");
+        }
+        if (userId != null) {
+            if (unit != ChronoUnit.HOURS) {
+                throw new BusinessException(400, "按用户统计仅支持hour粒度");
+            }
+            return auditLogRollupMapper.selectUserHourlyCounts(userId, operationType, status, start, end);
+        }
+        return unit == ChronoUnit.MINUTES
+                ? auditLogRollupMapper.selectMinuteCounts(operationType, status, start, end)
+                : auditLogRollupMapper.selectHourlyCounts(operationType, status, start, end);
+    }
+    
+    @Override
+    public String startRollupBackfill(LocalDateTime startTime, LocalDateTime endTime) {
+        return auditLogRollupBackfill.start(startTime, endTime);
+    }
+    
+    /**
+     * 游标编码：最后一条记录的创建时间和ID，Base64URL编码后对调用方不透明
+     */
+    private static String encodeCursor(AuditLog last) {
+        String position = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 游标解码，返回只包含创建时间和ID的审计日志
+     */
+    private static AuditLog decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            AuditLog auditLog = new AuditLog();
+            auditLog.setCreatedAt(LocalDateTime.parse(position.substring(0, separator)));
+            auditLog.setId(Long.parseLong(position.substring(separator + 1)));
+            return auditLog;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException(400, "无效的分页游标");
+        }
+    }
 }
-
@@ -0,0 +1,74 @@
+package com.logindemo.service.impl;
+
+import com.logindemo.mapper.MockDataMapper;
+import com.logindemo.model.MockData;
+import com.logindemo.service.VerificationCodeStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+
+/**
+ * 基于mock_data表的验证码存储（无Redis时的多节点共享实现）
+ * 校验成功时由一条条件UPDATE同时完成比对与消费（consumeCode），并发请求中只有一个能消费成功；
+ * 校验失败时由一条UPDATE累加extra_data中的失败次数，达到上限后作废
+ */
+@Component
+@ConditionalOnProperty(name = "verification-code.store", havingValue = "db")
+public class DbVerificationCodeStore implements VerificationCodeStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DbVerificationCodeStore.class);
+
+    @Autowired
+    private MockDataMapper mockDataMapper;
+
+    @Value("${verification-code.ttl:300}")
+    private long ttlSeconds;
+
+    @Value("${verification-code.resend-interval:60}")
+    private long resendIntervalSeconds;
+
+    @Value("${verification-code.max-attempts:5}")
+    private int maxAttempts;
+
+    @PostConstruct
+    public void init() {
+        logger.info("验证码使用mock_data表存储");
+    }
+
+    @Override
+    @Transactional
+    public boolean save(String type, String account, String code) {
+        LocalDateTime now = LocalDateTime.now();
+        if (mockDataMapper.countCreatedSince(type, account, now.minusSeconds(resendIntervalSeconds)) > 0) {
+            return false;
+        }
+        mockDataMapper.expireActive(type, account);
+
+        MockData mockData = new MockData();
+        mockData.setDataType(type);
+        mockData.setDataKey(account);
+        mockData.setDataValue(code);
+        mockData.setStatus("active");
+        mockData.setExpireTime(now.plusSeconds(ttlSeconds));
+        mockData.setCreatedAt(now);
+        mockData.setUpdatedAt(now);
+        mockDataMapper.insert(mockData);
+        return true;
+    }
+
+    @Override
+    public VerifyResult verifyAndConsume(String type, String account, String code) {
+        if (mockDataMapper.consumeCode(type, account, code) > 0) {
+            return VerifyResult.SUCCESS;
+        }
+        return mockDataMapper.recordCodeFailure(type, account, maxAttempts) > 0
+                ? VerifyResult.MISMATCH : VerifyResult.NOT_FOUND;
+    }
+}
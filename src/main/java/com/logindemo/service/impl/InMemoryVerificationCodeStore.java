@@ -0,0 +1,112 @@
+package com.logindemo.service.impl;
+
+import com.logindemo.service.VerificationCodeStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于进程内存的验证码存储（单节点部署或本地开发使用，多节点之间不共享）
+ * 保存与校验通过ConcurrentHashMap.compute对单个账号原子执行，过期条目定时清理
+ */
+@Component
+@ConditionalOnProperty(name = "verification-code.store", havingValue = "memory")
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryVerificationCodeStore.class);
+
+    @Value("${verification-code.ttl:300}")
+    private long ttlSeconds;
+
+    @Value("${verification-code.resend-interval:60}")
+    private long resendIntervalSeconds;
+
+    @Value("${verification-code.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * 类型:账号 -> 验证码条目
+     */
+    private final Map<String, CodeEntry> codes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        logger.info("验证码使用进程内存存储，仅适用于单节点部署");
+    }
+
+    @Override
+    public boolean save(String type, String account, String code) {
+        long now = System.currentTimeMillis();
+        boolean[] saved = new boolean[1];
+        codes.compute(type + ":" + account, (key, existing) -> {
+            if (existing != null && now < existing.resendAllowedAt) {
+                return existing;
+            }
+            saved[0] = true;
+            return new CodeEntry(code, now + ttlSeconds * 1000, now + resendIntervalSeconds * 1000);
+        });
+        return saved[0];
+    }
+
+    @Override
+    public VerifyResult verifyAndConsume(String type, String account, String code) {
+        long now = System.currentTimeMillis();
+        VerifyResult[] result = {VerifyResult.NOT_FOUND};
+        codes.computeIfPresent(type + ":" + account, (key, entry) -> {
+            if (entry.code == null || now >= entry.expiresAt) {
+                return entry.retainForThrottle(now);
+            }
+            if (entry.code.equals(code)) {
+                result[0] = VerifyResult.SUCCESS;
+                return entry.consumed(now);
+            }
+            result[0] = VerifyResult.MISMATCH;
+            entry.fails++;
+            return entry.fails >= maxAttempts ? entry.consumed(now) : entry;
+        });
+        return result[0];
+    }
+
+    /**
+     * 清理已过期且已过重发间隔的条目
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        codes.values().removeIf(entry -> now >= entry.expiresAt && now >= entry.resendAllowedAt);
+    }
+
+    /**
+     * 验证码条目，只在compute回调内读写
+     */
+    private static final class CodeEntry {
+        private final String code;
+        private final long expiresAt;
+        private final long resendAllowedAt;
+        private int fails;
+
+        CodeEntry(String code, long expiresAt, long resendAllowedAt) {
+            this.code = code;
+            this.expiresAt = expiresAt;
+            this.resendAllowedAt = resendAllowedAt;
+        }
+
+        /**
+         * 验证码作废，重发间隔内保留条目以继续限制重发
+         */
+        CodeEntry consumed(long now) {
+            return retainForThrottle(now) == null ? null : new CodeEntry(null, 0L, resendAllowedAt);
+        }
+
+        CodeEntry retainForThrottle(long now) {
+            return now < resendAllowedAt ? this : null;
+        }
+    }
+}
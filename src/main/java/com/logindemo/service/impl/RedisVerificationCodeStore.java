@@ -0,0 +1,83 @@
+package com.logindemo.service.impl;
+
+import com.logindemo.exception.BusinessException;
+import com.logindemo.service.VerificationCodeStore;
+import com.logindemo.utils.RedisUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * 基于Redis的验证码存储（默认实现，多节点共享）
+ * 验证码使用Redis原生TTL过期，保存与校验分别由一个Lua脚本原子完成
+ */
+@Component
+@ConditionalOnProperty(name = "verification-code.store", havingValue = "redis", matchIfMissing = true)
+public class RedisVerificationCodeStore implements VerificationCodeStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisVerificationCodeStore.class);
+
+    /**
+     * 验证码Redis Key前缀
+     */
+    private static final String CODE_PREFIX = "verify:code:";
+
+    /**
+     * 重发限制Redis Key前缀
+     */
+    private static final String THROTTLE_PREFIX = "verify:throttle:";
+
+    private static final RedisScript<Long> SAVE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/verification_code_save.lua"), Long.class);
+
+    private static final RedisScript<Long> CONSUME_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/verification_code_consume.lua"), Long.class);
+
+    @Autowired
+    private RedisUtils redisUtils;
+
+    @Value("${verification-code.ttl:300}")
+    private long ttlSeconds;
+
+    @Value("${verification-code.resend-interval:60}")
+    private long resendIntervalSeconds;
+
+    @Value("${verification-code.max-attempts:5}")
+    private int maxAttempts;
+
+    @Override
+    public boolean save(String type, String account, String code) {
+        String suffix = type + ":" + account;
+        Long result = redisUtils.executeScript(SAVE_SCRIPT,
+                Arrays.asList(CODE_PREFIX + suffix, THROTTLE_PREFIX + suffix),
+                code, ttlSeconds, resendIntervalSeconds);
+        if (result == null) {
+            throw new BusinessException(503, "验证码服务暂不可用，请稍后再试");
+        }
+        return result == 1L;
+    }
+
+    @Override
+    public VerifyResult verifyAndConsume(String type, String account, String code) {
+        Long result = redisUtils.executeScript(CONSUME_SCRIPT,
+                Collections.singletonList(CODE_PREFIX + type + ":" + account),
+                code, maxAttempts);
+        if (result == null) {
+            // Redis不可用时无法确认验证码，按校验失败处理
+            logger.warn("Redis不可用，验证码校验失败，类型: {}, 账号: {}", type, account);
+            throw new BusinessException(503, "验证码服务暂不可用，请稍后再试");
+        }
+        if (result == 1L) {
+            return VerifyResult.SUCCESS;
+        }
+        return result == 2L ? VerifyResult.MISMATCH : VerifyResult.NOT_FOUND;
+    }
+}
@@ -1,7 +1,6 @@
 package com.logindemo.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.logindemo.exception.BusinessException;
 import com.logindemo.mapper.MockDataMapper;
 import com.logindemo.mapper.UserMapper;
@@ -11,24 +10,38 @@ import com.logindemo.model.User;
 import com.logindemo.model.dto.AuthResponse;
 import com.logindemo.model.dto.LoginRequest;
 import com.logindemo.model.dto.RegisterRequest;
+import com.logindemo.model.dto.TokenIntrospectionResponse;
 import com.logindemo.model.dto.WechatQrcodeResponse;
 import com.logindemo.model.dto.WechatStatusResponse;
+import com.logindemo.security.LoginGuard;
+import com.logindemo.security.LoginRateLimiter;
+import com.logindemo.security.TokenRevocationRegistry;
+import com.logindemo.security.UserPrincipalCache;
+import com.logindemo.security.UsernameFilter;
+import com.logindemo.security.VerifiedTokenCache;
+import com.logindemo.security.WechatTicketRegistry;
 import com.logindemo.service.MenuService;
 import com.logindemo.service.UserService;
+import com.logindemo.service.VerificationCodeStore;
 import com.logindemo.utils.JwtUtils;
 import com.logindemo.utils.PasswordUtils;
 import com.logindemo.utils.RedisUtils;
+import com.logindemo.utils.VerifiedToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 用户服务实现类
@@ -56,9 +69,6 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private MockDataMapper mockDataMapper;
     
-    @Autowired
-    private ObjectMapper objectMapper;
-    
     @Autowired
     private com.logindemo.service.CaptchaService captchaService;
     
@@ -68,24 +78,54 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private com.logindemo.utils.HttpRequestUtils httpRequestUtils;
 
-    @Value("${login.max-attempts}")
-    private int maxLoginAttempts;
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private LoginGuard loginGuard;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
 
-    @Value("${login.lock-duration}")
-    private int lockDuration;
+    @Autowired
+    private UsernameFilter usernameFilter;
+
+    @Autowired
+    private VerificationCodeStore verificationCodeStore;
 
     /**
-     * 登录失败次数Redis Key前缀
+     * 是否将验证码签发记录写入mock_data表
      */
-    private static final String LOGIN_ATTEMPT_PREFIX = "login:attempt:";
-    
+    @Value("${verification-code.audit-enabled:false}")
+    private boolean verificationCodeAuditEnabled;
+
+    @Value("${verification-code.ttl:300}")
+    private long verificationCodeTtl;
+
+    private static final SecureRandom VERIFICATION_CODE_RANDOM = new SecureRandom();
+
+    @Autowired
+    private WechatTicketRegistry wechatTicketRegistry;
+
     /**
-     * 用户锁定Redis Key前缀
+     * 微信扫码状态长轮询最长等待时间（毫秒）
      */
-    private static final String USER_LOCK_PREFIX = "user:lock:";
+    @Value("${wechat.long-poll.max-timeout:25000}")
+    private long wechatLongPollMaxTimeout;
 
     /**
-     * Token黑名单Redis Key前缀
+     * 微信登录二维码有效期（毫秒）
+     */
+    private static final long WECHAT_TICKET_TTL_MILLIS = 120000;
+
+    /**
+     * Token黑名单Redis Key前缀（后接Token标识jti，存量Token为Token摘要）
      */
     private static final String TOKEN_BLACKLIST_PREFIX = "token:blacklist:";
 
@@ -133,6 +173,7 @@ public class UserServiceImpl implements UserService {
             // 保存用户
             logger.debug("保存用户到数据库");
             userMapper.insert(user);
+            usernameFilter.add(user.getUsername());
             logger.info("用户保存成功，ID: {}", user.getId());
 
             // 生成Token
@@ -181,12 +222,18 @@ public class UserServiceImpl implements UserService {
     public AuthResponse login(LoginRequest request) {
         String username = request.getUsername();
 
-        // 检查用户是否被锁定
-        checkUserLocked(username);
+        // 按IP和用户名限流，超限请求不触达数据库和BCrypt
+        loginRateLimiter.acquire(httpRequestUtils.getClientIp(), username);
+
+        // 一次Redis调用完成锁定检查和验证码阈值判断
+        LoginGuard.Result guard = loginGuard.check(username);
+        if (guard.getState() == LoginGuard.State.LOCKED) {
+            logger.debug("用户[{}]账户已被锁定，剩余锁定时间: {}秒", username, guard.getLockRemainingSeconds());
+            throw new BusinessException("账户已被锁定，请" + guard.getLockRemainingSeconds() + "秒后再试");
+        }
 
         // 检查是否需要验证码
-        boolean requiresCaptcha = captchaService.requiresCaptcha(username);
-        if (requiresCaptcha) {
+        if (guard.getState() == LoginGuard.State.CAPTCHA_REQUIRED) {
             // 如果需要验证码，验证验证码
             if (request.getCaptchaKey() == null || request.getCaptchaCode() == null) {
                 throw new BusinessException("密码错误次数大于3次，请输入验证码");
@@ -198,9 +245,17 @@ public class UserServiceImpl implements UserService {
             }
         }
 
+        // 用户名一定不存在时直接拒绝：不查库、不写Redis、不写审计日志，只做一次等价的BCrypt验证均衡耗时
+        if (!usernameFilter.mightExist(username)) {
+            passwordUtils.matchesDummy(request.getPassword());
+            logger.debug("用户名过滤器判定用户不存在: {}", username);
+            throw new BusinessException(400, "用户不存在", false);
+        }
+
         // 根据用户名查询用户
         User user = userMapper.findByUsername(username);
         if (Objects.isNull(user)) {
+            passwordUtils.matchesDummy(request.getPassword());
             // 记录失败次数
             recordLoginAttempt(username);
             // 记录审计日志
@@ -233,7 +288,10 @@ public class UserServiceImpl implements UserService {
         }
 
         // 清除登录失败记录
-        redisUtils.delete(LOGIN_ATTEMPT_PREFIX + username);
+        loginGuard.reset(username);
+
+        // 存量哈希参数过时的，后台按当前配置重新哈希
+        upgradePasswordHashIfNeeded(user, request.getPassword());
 
         // 生成Token
         String accessToken = jwtUtils.generateAccessToken(user.getId(), user.getUsername());
@@ -263,10 +321,17 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void logout(String token) {
-        // 将Token加入黑名单
-        Long userId = jwtUtils.getUserIdFromToken(token);
-        long expiresTime = jwtUtils.getExpireTime();
-        redisUtils.set(TOKEN_BLACKLIST_PREFIX + token, userId, expiresTime / 1000);
+        VerifiedToken verifiedToken = verifiedTokenCache.verify(token);
+        if (Objects.isNull(verifiedToken)) {
+            throw new BusinessException(401, "Token无效");
+        }
+
+        // 将Token加入黑名单（保留至Token自身过期），并同步到各节点的本地吊销索引
+        Long userId = verifiedToken.getUserId();
+        redisUtils.set(TOKEN_BLACKLIST_PREFIX + verifiedToken.getTokenId(), userId,
+                Math.max(1L, verifiedToken.getRemainingSeconds()));
+        tokenRevocationRegistry.revoke(verifiedToken);
+        verifiedTokenCache.invalidate(token);
         
         // 记录审计日志
         User user = userMapper.selectById(userId);
@@ -281,13 +346,14 @@ public class UserServiceImpl implements UserService {
     @Override
     public AuthResponse refreshToken(String refreshToken) {
         // 验证刷新Token
-        if (!jwtUtils.validateToken(refreshToken)) {
+        VerifiedToken verifiedToken = jwtUtils.verify(refreshToken);
+        if (Objects.isNull(verifiedToken) || tokenRevocationRegistry.isRevoked(verifiedToken)) {
             throw new BusinessException("刷新Token无效");
         }
 
         // 获取用户信息
-        Long userId = jwtUtils.getUserIdFromToken(refreshToken);
-        String username = jwtUtils.getUsernameFromToken(refreshToken);
+        Long userId = verifiedToken.getUserId();
+        String username = verifiedToken.getUsername();
 
         // 检查用户是否存在
         User user = userMapper.selectById(userId);
@@ -319,12 +385,48 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public boolean validateToken(String token) {
-        // 检查Token是否在黑名单中
-        if (redisUtils.hasKey(TOKEN_BLACKLIST_PREFIX + token)) {
+        // 验证Token
+        VerifiedToken verifiedToken = verifiedTokenCache.verify(token);
+        if (Objects.isNull(verifiedToken) || tokenRevocationRegistry.isRevoked(verifiedToken)) {
             return false;
         }
-        // 验证Token
-        return jwtUtils.validateToken(token);
+        // 检查Token是否在黑名单中
+        return !redisUtils.hasKey(TOKEN_BLACKLIST_PREFIX + verifiedToken.getTokenId());
+    }
+
+    @Override
+    public List<TokenIntrospectionResponse> introspectTokens(List<String> tokens) {
+        // 先在本地完成验签（命中缓存时跳过）和本地吊销检查
+        List<VerifiedToken> candidates = new ArrayList<>(tokens.size());
+        List<String> blacklistKeys = new ArrayList<>();
+        for (String token : tokens) {
+            VerifiedToken verifiedToken = Objects.isNull(token) ? null : verifiedTokenCache.verify(token);
+            if (Objects.nonNull(verifiedToken) && tokenRevocationRegistry.isRevoked(verifiedToken)) {
+                verifiedToken = null;
+            }
+            candidates.add(verifiedToken);
+            if (Objects.nonNull(verifiedToken)) {
+                blacklistKeys.add(TOKEN_BLACKLIST_PREFIX + verifiedToken.getTokenId());
+            }
+        }
+
+        // 剩余Token的黑名单检查合并为一次Redis管道调用
+        List<Boolean> blacklisted = redisUtils.hasKeys(blacklistKeys);
+
+        List<TokenIntrospectionResponse> results = new ArrayList<>(tokens.size());
+        int blacklistIndex = 0;
+        for (VerifiedToken verifiedToken : candidates) {
+            TokenIntrospectionResponse result = new TokenIntrospectionResponse();
+            if (Objects.nonNull(verifiedToken) && !blacklisted.get(blacklistIndex++)) {
+                result.setActive(true);
+                result.setUserId(verifiedToken.getUserId());
+                result.setUsername(verifiedToken.getUsername());
+                result.setType(verifiedToken.getType());
+                result.setExpiresAt(verifiedToken.getExpiresAt());
+            }
+            results.add(result);
+        }
+        return results;
     }
 
     @Override
@@ -374,6 +476,8 @@ public class UserServiceImpl implements UserService {
             user.setPassword(existingUser.getPassword());
             
             int result = userMapper.updateById(user);
+            userPrincipalCache.evict(user.getId());
+            usernameFilter.add(user.getUsername());
             logger.info("用户更新成功，ID: {}", user.getId());
             return result > 0;
         } catch (BusinessException e) {
@@ -413,11 +517,12 @@ public class UserServiceImpl implements UserService {
             user.setUpdatedAt(LocalDateTime.now());
             
             // 如果密码未加密，进行加密
-            if (!user.getPassword().startsWith("$2a$")) {
+            if (!passwordUtils.isEncoded(user.getPassword())) {
                 user.setPassword(passwordUtils.encode(user.getPassword()));
             }
             
             int result = userMapper.insert(user);
+            usernameFilter.add(user.getUsername());
             logger.info("用户添加成功，ID: {}", user.getId());
             return result > 0;
         } catch (BusinessException e) {
@@ -441,6 +546,8 @@ public class UserServiceImpl implements UserService {
             }
             
             int result = userMapper.deleteById(id);
+            userPrincipalCache.evict(id);
+            tokenRevocationRegistry.revokeAllForUser(id);
             logger.info("用户删除成功，ID: {}", id);
             return result > 0;
         } catch (BusinessException e) {
@@ -452,30 +559,40 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * 检查用户是否被锁定
+     * 密码验证通过后，若存量哈希的算法或代价参数已过时，异步重新哈希并写回
+     * 只在数据库中的哈希仍是本次验证的哈希时更新，不会覆盖期间修改的新密码；失败时下次登录再试
      */
-    private void checkUserLocked(String username) {
-        if (redisUtils.hasKey(USER_LOCK_PREFIX + username)) {
-            long remainingTime = redisUtils.getExpire(USER_LOCK_PREFIX + username);
-            logger.debug("用户[{}]账户已被锁定，剩余锁定时间: {}秒", username, remainingTime);
-            throw new BusinessException("账户已被锁定，请" + remainingTime + "秒后再试");
-        }
+    private void upgradePasswordHashIfNeeded(User user, String rawPassword) {
+        String oldHash = user.getPassword();
+        if (!passwordUtils.needsUpgrade(oldHash)) {
+            return;
+        }
+        Long userId = user.getId();
+        passwordUtils.encodeAsync(rawPassword).whenComplete((newHash, ex) -> {
+            if (Objects.nonNull(ex)) {
+                logger.debug("密码哈希升级跳过，用户ID: {}, 原因: {}", userId, ex.getMessage());
+                return;
+            }
+            try {
+                int updated = userMapper.updatePasswordIfMatches(userId, oldHash, newHash);
+                logger.info("密码哈希升级{}，用户ID: {}", updated > 0 ? "成功" : "跳过（密码已变更）", userId);
+            } catch (Exception e) {
+                logger.warn("密码哈希升级失败，用户ID: {}, error: {}", userId, e.getMessage());
+            }
+        });
     }
 
     /**
      * 记录登录失败次数，超过限制则锁定账户
      */
     private void recordLoginAttempt(String username) {
-        Long attempts = redisUtils.increment(LOGIN_ATTEMPT_PREFIX + username, 3600); // 1小时内的失败次数
-        logger.debug("用户[{}]登录失败，当前失败次数: {}", username, attempts);
-        if (attempts >= maxLoginAttempts) {
-            // 锁定账户
-            redisUtils.set(USER_LOCK_PREFIX + username, "locked", lockDuration);
-            logger.info("用户[{}]登录失败次数超过限制({}次)，账户已被锁定{}秒", 
-                       username, maxLoginAttempts, lockDuration);
-            // 清除失败记录
-            redisUtils.delete(LOGIN_ATTEMPT_PREFIX + username);
-            throw new BusinessException("登录失败次数过多，账户已被锁定" + lockDuration + "秒");
+        LoginGuard.Result result = loginGuard.recordFailure(username);
+        if (result.getState() == LoginGuard.State.JUST_LOCKED) {
+            throw new BusinessException("登录失败次数过多，账户已被锁定" + result.getLockRemainingSeconds() + "秒");
+        }
+        if (result.getState() == LoginGuard.State.LOCKED) {
+            // 并发失败请求中已有其他请求触发锁定
+            throw new BusinessException("账户已被锁定，请" + result.getLockRemainingSeconds() + "秒后再试");
         }
     }
     
@@ -523,6 +640,9 @@ public class UserServiceImpl implements UserService {
             
             // 更新密码
             int result = userMapper.updateById(updateUser);
+            userPrincipalCache.evict(userId);
+            // 修改密码后使该用户已签发的所有Token失效
+            tokenRevocationRegistry.revokeAllForUser(userId);
             logger.info("用户密码更新成功，ID: {}", userId);
             
             // 记录审计日志
@@ -563,38 +683,11 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException("该手机号未注册");
         }
         
-        // 检查是否在1分钟内已发送过验证码（防止频繁发送）
-        MockData existingData = mockDataMapper.findByTypeAndKey("sms_code", phone);
-        if (Objects.nonNull(existingData)) {
-            long secondsSinceCreation = java.time.Duration.between(
-                existingData.getCreatedAt(), LocalDateTime.now()).getSeconds();
-            if (secondsSinceCreation < 60) {
-                throw new BusinessException("验证码发送过于频繁，请稍后再试");
-            }
-        }
-        
-        // 生成6位随机验证码
-        String code = String.format("%06d", (int)(Math.random() * 1000000));
-        
-        // 保存到mock_data表（5分钟有效）
-        MockData mockData = new MockData();
-        mockData.setDataType("sms_code");
-        mockData.setDataKey(phone);
-        mockData.setDataValue(code);
-        mockData.setStatus("active");
-        mockData.setExpireTime(LocalDateTime.now().plusMinutes(5));
-        mockData.setCreatedAt(LocalDateTime.now());
-        mockData.setUpdatedAt(LocalDateTime.now());
-        
-        // 如果有旧数据，先更新状态为已使用
-        if (Objects.nonNull(existingData)) {
-            mockDataMapper.updateStatus(existingData.getId(), "used");
-        }
-        
-        mockDataMapper.insert(mockData);
+        // 保存验证码（有效期和重发间隔见verification-code配置）
+        String code = issueVerificationCode("sms_code", phone);
         
         logger.info("短信验证码已生成并保存，手机号: {}, 验证码: {}", phone, code);
-        // 注意：实际生产环境应该调用短信服务发送验证码，这里只是保存到数据库
+        // 注意：实际生产环境应该调用短信服务发送验证码，这里只是保存到验证码存储
     }
     
     @Override
@@ -606,31 +699,8 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException("手机号格式不正确");
         }
         
-        // 从mock_data表查询验证码
-        MockData mockData = mockDataMapper.findByTypeAndKey("sms_code", phone);
-        if (Objects.isNull(mockData)) {
-            throw new BusinessException("验证码不存在或已过期");
-        }
-        
-        // 检查验证码是否过期
-        if (Objects.nonNull(mockData.getExpireTime()) && 
-            mockData.getExpireTime().isBefore(LocalDateTime.now())) {
-            mockDataMapper.updateStatus(mockData.getId(), "expired");
-            throw new BusinessException("验证码已过期");
-        }
-        
-        // 检查验证码是否已使用
-        if ("used".equals(mockData.getStatus())) {
-            throw new BusinessException("验证码已被使用");
-        }
-        
-        // 验证验证码
-        if (!code.equals(mockData.getDataValue())) {
-            throw new BusinessException("验证码错误");
-        }
-        
-        // 标记验证码为已使用
-        mockDataMapper.updateStatus(mockData.getId(), "used");
+        // 校验并消费验证码
+        consumeVerificationCode("sms_code", phone, code);
         
         // 根据手机号查询用户
         User user = userMapper.findByPhone(phone);
@@ -668,37 +738,12 @@ public class UserServiceImpl implements UserService {
     public WechatQrcodeResponse getWechatQrcode() {
         logger.info("获取微信登录二维码");
         
-        // 生成唯一的ticket
-        String ticket = "WX_TICKET_" + System.currentTimeMillis() + "_" + 
-                        String.format("%04d", (int)(Math.random() * 10000));
+        // 票据号由票据状态机生成（安全随机数，登记时检查唯一性）
+        String ticket = wechatTicketRegistry.create(WECHAT_TICKET_TTL_MILLIS);
         
         // 生成二维码URL（实际应该调用微信API生成，这里使用模拟URL）
         String qrcodeUrl = "https://via.placeholder.com/200x200?text=WeChat+QRCode+" + ticket;
         
-        // 保存到mock_data表（2分钟有效）
-        MockData mockData = new MockData();
-        mockData.setDataType("wechat_qrcode");
-        mockData.setDataKey(ticket);
-        mockData.setDataValue(qrcodeUrl);
-        
-        // extraData存储状态信息
-        try {
-            Map<String, Object> extraMap = new HashMap<>();
-            extraMap.put("status", "waiting");
-            extraMap.put("userId", null);
-            mockData.setExtraData(objectMapper.writeValueAsString(extraMap));
-        } catch (Exception e) {
-            logger.error("序列化extraData失败", e);
-            mockData.setExtraData("{\"status\":\"waiting\",\"userId\":null}");
-        }
-        
-        mockData.setStatus("active");
-        mockData.setExpireTime(LocalDateTime.now().plusMinutes(2));
-        mockData.setCreatedAt(LocalDateTime.now());
-        mockData.setUpdatedAt(LocalDateTime.now());
-        
-        mockDataMapper.insert(mockData);
-        
         // 构建响应
         WechatQrcodeResponse response = new WechatQrcodeResponse();
         response.setQrcodeUrl(qrcodeUrl);
@@ -712,133 +757,127 @@ public class UserServiceImpl implements UserService {
     @Override
     public WechatStatusResponse getWechatStatus(String ticket) {
         logger.debug("查询微信扫码状态，ticket: {}", ticket);
-        
-        // 从mock_data表查询二维码数据
-        MockData mockData = mockDataMapper.findByTypeAndKey("wechat_qrcode", ticket);
-        if (Objects.isNull(mockData)) {
-            WechatStatusResponse response = new WechatStatusResponse();
-            response.setStatus("expired");
-            return response;
+        // 状态由内存票据状态机维护，查询不访问数据库；确认后的认证响应只返回一次
+        return wechatTicketRegistry.poll(ticket);
+    }
+
+    @Override
+    public CompletableFuture<WechatStatusResponse> waitWechatStatus(String ticket, String lastStatus, long timeoutMillis) {
+        long timeout = Math.min(Math.max(timeoutMillis, 0L), wechatLongPollMaxTimeout);
+        return wechatTicketRegistry.await(ticket, lastStatus, timeout);
+    }
+
+    /**
+     * 模拟微信扫码流程（实际应该由微信回调触发）：超过15秒认为已扫描，超过30秒认为已确认（仅用于演示）
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void simulateWechatScan() {
+        long now = System.currentTimeMillis();
+        for (WechatTicketRegistry.TicketView view : wechatTicketRegistry.pendingTickets()) {
+            long secondsSinceCreation = (now - view.getCreatedAt()) / 1000;
+            try {
+                if (secondsSinceCreation > 30) {
+                    confirmWechatTicket(view.getTicket());
+                } else if (secondsSinceCreation > 15 && view.getStatus() == WechatTicketRegistry.Status.WAITING) {
+                    wechatTicketRegistry.transition(view.getTicket(),
+                            WechatTicketRegistry.Status.WAITING, WechatTicketRegistry.Status.SCANNED);
+                }
+            } catch (Exception e) {
+                logger.error("推进微信扫码状态失败，ticket: {}", view.getTicket(), e);
+            }
         }
-        
-        // 检查是否过期
-        if (Objects.nonNull(mockData.getExpireTime()) && 
-            mockData.getExpireTime().isBefore(LocalDateTime.now())) {
-            mockDataMapper.updateStatus(mockData.getId(), "expired");
-            WechatStatusResponse response = new WechatStatusResponse();
-            response.setStatus("expired");
-            return response;
+    }
+
+    /**
+     * 模拟用户确认登录：查找或创建用户，签发Token并交给票据状态机交付
+     */
+    private void confirmWechatTicket(String ticket) {
+        // 查找或创建测试用户（实际应该根据微信用户信息查找）
+        User user = userMapper.findByPhone("13800138000");
+        if (Objects.isNull(user)) {
+            // 如果没有找到用户，创建一个测试用户
+            user = new User();
+            user.setUsername("wechat_user_" + System.currentTimeMillis());
+            user.setPassword(passwordUtils.encode("123456"));
+            user.setEmail("wechat@example.com");
+            user.setPhone("13800138000");
+            user.setStatus(1);
+            user.setCreatedAt(LocalDateTime.now());
+            user.setUpdatedAt(LocalDateTime.now());
+            userMapper.insert(user);
+            usernameFilter.add(user.getUsername());
         }
-        
-        // 解析extraData获取状态
-        String status = "waiting";
-        Long userId = null;
-        
+
+        // 生成Token
+        String accessToken = jwtUtils.generateAccessToken(user.getId(), user.getUsername());
+        String refreshToken = jwtUtils.generateRefreshToken(user.getId(), user.getUsername());
+
+        // 构建认证响应
+        AuthResponse authResponse = new AuthResponse();
+        authResponse.setAccessToken(accessToken);
+        authResponse.setRefreshToken(refreshToken);
+        authResponse.setExpiresIn(jwtUtils.getExpirationTime());
+
+        AuthResponse.UserInfo userInfo = new AuthResponse.UserInfo();
+        userInfo.setId(user.getId());
+        userInfo.setUsername(user.getUsername());
+        userInfo.setEmail(user.getEmail());
+        userInfo.setPhone(user.getPhone());
+        authResponse.setUser(userInfo);
+
+        if (!wechatTicketRegistry.confirm(ticket, authResponse)) {
+            return;
+        }
+        logger.info("微信扫码登录已确认，ticket: {}, 用户ID: {}", ticket, user.getId());
+    }
+    
+    /**
+     * 生成并保存验证码，重发间隔内抛出业务异常
+     */
+    private String issueVerificationCode(String type, String account) {
+        // 生成6位随机验证码
+        String code = String.format("%06d", VERIFICATION_CODE_RANDOM.nextInt(1000000));
+        if (!verificationCodeStore.save(type, account, code)) {
+            throw new BusinessException("验证码发送过于频繁，请稍后再试");
+        }
+        if (verificationCodeAuditEnabled) {
+            auditVerificationCode(type, account, code);
+        }
+        return code;
+    }
+
+    /**
+     * 记录验证码签发到mock_data表（模拟短信/邮件网关的发送记录，不参与校验）
+     */
+    private void auditVerificationCode(String type, String account, String code) {
         try {
-            if (Objects.nonNull(mockData.getExtraData()) && !mockData.getExtraData().isEmpty()) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> extraMap = (Map<String, Object>) objectMapper.readValue(
-                    mockData.getExtraData(), Map.class);
-                status = (String) extraMap.getOrDefault("status", "waiting");
-                userId = extraMap.get("userId") != null ? 
-                    Long.valueOf(extraMap.get("userId").toString()) : null;
-            }
+            MockData mockData = new MockData();
+            mockData.setDataType(type);
+            mockData.setDataKey(account);
+            mockData.setDataValue(code);
+            mockData.setStatus("active");
+            mockData.setExpireTime(LocalDateTime.now().plusSeconds(verificationCodeTtl));
+            mockData.setCreatedAt(LocalDateTime.now());
+            mockData.setUpdatedAt(LocalDateTime.now());
+            mockDataMapper.insert(mockData);
         } catch (Exception e) {
-            logger.error("解析extraData失败", e);
+            logger.warn("验证码发送记录写入失败，类型: {}, 账号: {}, error: {}", type, account, e.getMessage());
         }
-        
-        WechatStatusResponse response = new WechatStatusResponse();
-        
-        // 如果是等待状态，模拟扫码流程（实际应该由微信回调触发）
-        if ("waiting".equals(status)) {
-            // 模拟：30秒后自动变为已扫描状态（实际应该由微信回调设置）
-            long secondsSinceCreation = java.time.Duration.between(
-                mockData.getCreatedAt(), LocalDateTime.now()).getSeconds();
-            
-            // 模拟扫码确认流程：超过15秒认为已扫描，超过30秒认为已确认（仅用于演示）
-            if (secondsSinceCreation > 30) {
-                // 模拟用户确认登录
-                status = "confirmed";
-                
-                // 查找或创建测试用户（实际应该根据微信用户信息查找）
-                User user = userMapper.findByPhone("13800138000");
-                if (Objects.isNull(user)) {
-                    // 如果没有找到用户，创建一个测试用户
-                    user = new User();
-                    user.setUsername("wechat_user_" + System.currentTimeMillis());
-                    user.setPassword(passwordUtils.encode("123456"));
-                    user.setEmail("wechat@example.com");
-                    user.setPhone("13800138000");
-                    user.setStatus(1);
-                    user.setCreatedAt(LocalDateTime.now());
-                    user.setUpdatedAt(LocalDateTime.now());
-                    userMapper.insert(user);
-                }
-                
-                userId = user.getId();
-                
-                // 生成Token
-                String accessToken = jwtUtils.generateAccessToken(user.getId(), user.getUsername());
-                String refreshToken = jwtUtils.generateRefreshToken(user.getId(), user.getUsername());
-                
-                // 构建认证响应
-                AuthResponse authResponse = new AuthResponse();
-                authResponse.setAccessToken(accessToken);
-                authResponse.setRefreshToken(refreshToken);
-                authResponse.setExpiresIn(jwtUtils.getExpirationTime());
-                
-                AuthResponse.UserInfo userInfo = new AuthResponse.UserInfo();
-                userInfo.setId(user.getId());
-                userInfo.setUsername(user.getUsername());
-                userInfo.setEmail(user.getEmail());
-                userInfo.setPhone(user.getPhone());
-                authResponse.setUser(userInfo);
-                
-                response.setAuthResponse(authResponse);
-                
-                // 更新mock_data状态
-                try {
-                    Map<String, Object> extraMap = new HashMap<>();
-                    extraMap.put("status", "confirmed");
-                    extraMap.put("userId", userId);
-                    mockData.setExtraData(objectMapper.writeValueAsString(extraMap));
-                } catch (Exception e) {
-                    logger.error("更新extraData失败", e);
-                }
-                mockData.setStatus("used");
-                mockData.setUpdatedAt(LocalDateTime.now());
-                mockDataMapper.updateById(mockData);
-                
-            } else if (secondsSinceCreation > 15) {
-                status = "scanned";
-            }
-        } else if ("confirmed".equals(status) && Objects.nonNull(userId)) {
-            // 如果已确认，构建认证响应
-            User user = userMapper.selectById(userId);
-            if (Objects.nonNull(user)) {
-                String accessToken = jwtUtils.generateAccessToken(user.getId(), user.getUsername());
-                String refreshToken = jwtUtils.generateRefreshToken(user.getId(), user.getUsername());
-                
-                AuthResponse authResponse = new AuthResponse();
-                authResponse.setAccessToken(accessToken);
-                authResponse.setRefreshToken(refreshToken);
-                authResponse.setExpiresIn(jwtUtils.getExpirationTime());
-                
-                AuthResponse.UserInfo userInfo = new AuthResponse.UserInfo();
-                userInfo.setId(user.getId());
-                userInfo.setUsername(user.getUsername());
-                userInfo.setEmail(user.getEmail());
-                userInfo.setPhone(user.getPhone());
-                authResponse.setUser(userInfo);
-                
-                response.setAuthResponse(authResponse);
-            }
+    }
+
+    /**
+     * 校验并消费验证码，校验不通过时抛出业务异常
+     */
+    private void consumeVerificationCode(String type, String account, String code) {
+        VerificationCodeStore.VerifyResult result = verificationCodeStore.verifyAndConsume(type, account, code);
+        if (result == VerificationCodeStore.VerifyResult.NOT_FOUND) {
+            throw new BusinessException("验证码不存在或已过期");
+        }
+        if (result == VerificationCodeStore.VerifyResult.MISMATCH) {
+            throw new BusinessException("验证码错误");
         }
-        
-        response.setStatus(status);
-        return response;
     }
-    
+
     @Override
     public void sendEmailCode(String email) {
         logger.info("发送邮箱验证码，邮箱: {}", email);
@@ -854,38 +893,11 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException("该邮箱未注册");
         }
         
-        // 检查是否在1分钟内已发送过验证码（防止频繁发送）
-        MockData existingData = mockDataMapper.findByTypeAndKey("email_code", email);
-        if (Objects.nonNull(existingData)) {
-            long secondsSinceCreation = java.time.Duration.between(
-                existingData.getCreatedAt(), LocalDateTime.now()).getSeconds();
-            if (secondsSinceCreation < 60) {
-                throw new BusinessException("验证码发送过于频繁，请稍后再试");
-            }
-        }
-        
-        // 生成6位随机验证码
-        String code = String.format("%06d", (int)(Math.random() * 1000000));
-        
-        // 保存到mock_data表（5分钟有效）
-        MockData mockData = new MockData();
-        mockData.setDataType("email_code");
-        mockData.setDataKey(email);
-        mockData.setDataValue(code);
-        mockData.setStatus("active");
-        mockData.setExpireTime(LocalDateTime.now().plusMinutes(5));
-        mockData.setCreatedAt(LocalDateTime.now());
-        mockData.setUpdatedAt(LocalDateTime.now());
-        
-        // 如果有旧数据，先更新状态为已使用
-        if (Objects.nonNull(existingData)) {
-            mockDataMapper.updateStatus(existingData.getId(), "used");
-        }
-        
-        mockDataMapper.insert(mockData);
+        // 保存验证码（有效期和重发间隔见verification-code配置）
+        String code = issueVerificationCode("email_code", email);
         
         logger.info("邮箱验证码已生成并保存，邮箱: {}, 验证码: {}", email, code);
-        // 注意：实际生产环境应该调用邮件服务发送验证码，这里只是保存到数据库
+        // 注意：实际生产环境应该调用邮件服务发送验证码，这里只是保存到验证码存储
     }
     
     @Override
@@ -924,31 +936,8 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException("用户已被禁用");
         }
         
-        // 从mock_data表查询验证码
-        MockData mockData = mockDataMapper.findByTypeAndKey(codeType, account);
-        if (Objects.isNull(mockData)) {
-            throw new BusinessException("验证码不存在或已过期");
-        }
-        
-        // 检查验证码是否过期
-        if (Objects.nonNull(mockData.getExpireTime()) && 
-            mockData.getExpireTime().isBefore(LocalDateTime.now())) {
-            mockDataMapper.updateStatus(mockData.getId(), "expired");
-            throw new BusinessException("验证码已过期");
-        }
-        
-        // 检查验证码是否已使用
-        if ("used".equals(mockData.getStatus())) {
-            throw new BusinessException("验证码已被使用");
-        }
-        
-        // 验证验证码
-        if (!code.equals(mockData.getDataValue())) {
-            throw new BusinessException("验证码错误");
-        }
-        
-        // 标记验证码为已使用
-        mockDataMapper.updateStatus(mockData.getId(), "used");
+        // 校验并消费验证码
+        consumeVerificationCode(codeType, account, code);
         
         // 更新密码
         String encodedPassword = passwordUtils.encode(newPassword);
@@ -957,6 +946,8 @@ public class UserServiceImpl implements UserService {
         updateUser.setPassword(encodedPassword);
         updateUser.setUpdatedAt(LocalDateTime.now());
         userMapper.updateById(updateUser);
+        // 重置密码后使该用户已签发的所有Token失效
+        tokenRevocationRegistry.revokeAllForUser(user.getId());
         
         logger.info("密码重置成功，用户ID: {}, 用户名: {}", user.getId(), user.getUsername());
         
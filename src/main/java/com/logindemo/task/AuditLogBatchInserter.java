@@ -0,0 +1,167 @@
+package com.logindemo.task;
+
+import com.logindemo.mapper.AuditLogMapper;
+import com.logindemo.model.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.stereotype.Component;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 审计日志批量插入
+ * 先把各字段截断到audit_logs的列宽，再以一条多行INSERT写入；数据错误（约束冲突、非法字符等）导致整批失败时
+ * 二分拆批定位出错的行，只有仍无法写入的单行被丢弃（dead-letter，记录错误日志和计数），其余行照常写入。
+ * 连接失败、超时等暂时性错误不拆批，未写入的行原样返回给调用方，由调用方转入本地缓冲或稍后重试
+ */
+@Component
+public class AuditLogBatchInserter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogBatchInserter.class);
+
+    private final AuditLogMapper auditLogMapper;
+
+    private final AuditLogRollup auditLogRollup;
+
+    private final Counter deadLetteredCounter;
+
+    public AuditLogBatchInserter(AuditLogMapper auditLogMapper,
+                                 AuditLogRollup auditLogRollup,
+                                 MeterRegistry meterRegistry) {
+        this.auditLogMapper = auditLogMapper;
+        this.auditLogRollup = auditLogRollup;
+        this.deadLetteredCounter = Counter.builder("audit.log.dead_lettered")
+                .description("因数据错误无法写入而丢弃的审计日志数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 写入一批审计日志，写入成功的行同时累加汇总计数
+     */
+    public Result insert(List<AuditLog> auditLogs) {
+        Result result = new Result();
+        if (auditLogs.isEmpty()) {
+            return result;
+        }
+        for (AuditLog auditLog : auditLogs) {
+            truncateToColumns(auditLog);
+        }
+        insertIsolating(auditLogs, result);
+        if (!result.written.isEmpty()) {
+            auditLogRollup.record(result.written);
+        }
+        return result;
+    }
+
+    /**
+     * 整批写入，数据错误时二分拆批；遇到暂时性错误后剩余的行都不再尝试，放入待重试列表
+     */
+    private void insertIsolating(List<AuditLog> auditLogs, Result result) {
+        if (!result.pending.isEmpty()) {
+            result.pending.addAll(auditLogs);
+            return;
+        }
+        try {
+            auditLogMapper.insertBatch(auditLogs);
+            result.written.addAll(auditLogs);
+        } catch (Exception e) {
+            if (!isDataError(e)) {
+                result.error = e;
+                result.pending.addAll(auditLogs);
+            } else if (auditLogs.size() == 1) {
+                deadLetteredCounter.increment();
+                result.deadLettered++;
+                AuditLog auditLog = auditLogs.get(0);
+                logger.error("审计日志数据错误，已丢弃: type={}, user={}, status={}, createdAt={}, error={}",
+                        auditLog.getOperationType(), auditLog.getUsername(), auditLog.getStatus(),
+                        auditLog.getCreatedAt(), e.getMessage());
+            } else {
+                int middle = auditLogs.size() / 2;
+                insertIsolating(auditLogs.subList(0, middle), result);
+                insertIsolating(auditLogs.subList(middle, auditLogs.size()), result);
+            }
+        }
+    }
+
+    /**
+     * 是否为数据本身的错误（重试也不会成功）；其余错误（连接、超时、表结构等）视为暂时性错误
+     */
+    static boolean isDataError(Throwable e) {
+        return e instanceof DataIntegrityViolationException || e instanceof UncategorizedSQLException;
+    }
+
+    /**
+     * 截断到audit_logs的列宽（VARCHAR按字符计），避免严格模式下Data too long导致整批失败；
+     * 创建时间截断到秒：DATETIME写入时会对小数秒四舍五入，10:59:59.6会存为11:00:00，
+     * 汇总计数按Java中的值分桶，与按库中的值重建的计数在桶边界上会不一致
+     */
+    static void truncateToColumns(AuditLog auditLog) {
+        if (auditLog.getCreatedAt() != null) {
+            auditLog.setCreatedAt(auditLog.getCreatedAt().truncatedTo(ChronoUnit.SECONDS));
+        }
+        auditLog.setUsername(truncate(auditLog.getUsername(), 50));
+        auditLog.setOperationType(truncate(auditLog.getOperationType(), 50));
+        auditLog.setOperationDesc(truncate(auditLog.getOperationDesc(), 255));
+        auditLog.setIpAddress(truncate(auditLog.getIpAddress(), 50));
+        auditLog.setUserAgent(truncate(auditLog.getUserAgent(), 500));
+        auditLog.setStatus(truncate(auditLog.getStatus(), 20));
+        auditLog.setErrorMessage(truncate(auditLog.getErrorMessage(), 500));
+        auditLog.setRequestMethod(truncate(auditLog.getRequestMethod(), 10));
+        auditLog.setRequestPath(truncate(auditLog.getRequestPath(), 255));
+    }
+
+    /**
+     * 按码点截断，不拆开代理对
+     */
+    private static String truncate(String value, int maxChars) {
+        if (value == null || value.length() <= maxChars || value.codePointCount(0, value.length()) <= maxChars) {
+            return value;
+        }
+        return value.substring(0, value.offsetByCodePoints(0, maxChars));
+    }
+
+    /**
+     * 一批审计日志的写入结果
+     */
+    public static final class Result {
+        private final List<AuditLog> written = new ArrayList<>();
+        private final List<AuditLog> pending = new ArrayList<>();
+        private int deadLettered;
+        private Exception error;
+
+        /**
+         * 写入成功的行
+         */
+        public List<AuditLog> getWritten() {
+            return Collections.unmodifiableList(written);
+        }
+
+        /**
+         * 因暂时性错误未写入、需要重试的行
+         */
+        public List<AuditLog> getPending() {
+            return Collections.unmodifiableList(pending);
+        }
+
+        /**
+         * 因数据错误丢弃的行数
+         */
+        public int getDeadLettered() {
+            return deadLettered;
+        }
+
+        /**
+         * 导致pending的暂时性错误，没有时为null
+         */
+        public Exception getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.logindemo.task;
+
+import com.logindemo.mapper.AuditLogRollupMapper;
+import com.logindemo.model.AuditLog;
+import com.logindemo.model.AuditLogRollupCount;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 审计日志汇总计数
+ * 审计日志写库成功后，由写入线程把同一批日志分别按（分钟、操作类型、状态）、（小时、操作类型、状态）、
+ * （用户、小时、操作类型、状态）合并，各以一条INSERT ... ON DUPLICATE KEY UPDATE累加到
+ * audit_log_minute_counts、audit_log_hourly_counts、audit_log_user_hourly_counts，供数据看板和总数估算使用。
+ * 计数与审计日志不在同一事务中写入，累加失败只记录日志，因此计数是近似值，可通过AuditLogRollupBackfill按时间范围重建。
+ * 按分钟计数只保留minute-retention-days天，由定时任务分批清理
+ */
+@Component
+public class AuditLogRollup {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogRollup.class);
+
+    /**
+     * 未识别用户（如不存在的用户名登录失败）的用户ID
+     */
+    public static final long UNKNOWN_USER_ID = 0L;
+
+    /**
+     * 按主键顺序累加，降低多节点并发累加同一批计数行时的死锁概率
+     */
+    private static final Comparator<AuditLogRollupCount> KEY_ORDER =
+            Comparator.comparing(AuditLogRollupCount::getUserId, Comparator.nullsFirst(Comparator.<Long>naturalOrder()))
+                    .thenComparing(AuditLogRollupCount::getBucketTime)
+                    .thenComparing(AuditLogRollupCount::getOperationType)
+                    .thenComparing(AuditLogRollupCount::getStatus);
+
+    private final AuditLogRollupMapper auditLogRollupMapper;
+
+    private final boolean enabled;
+
+    private final int minuteRetentionDays;
+
+    private final int purgeBatchSize;
+
+    private final Counter failedCounter;
+
+    private final Counter purgedCounter;
+
+    public AuditLogRollup(AuditLogRollupMapper auditLogRollupMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${audit-log.rollup.enabled:true}") boolean enabled,
+                          @Value("${audit-log.rollup.minute-retention-days:7}") int minuteRetentionDays,
+                          @Value("${audit-log.rollup.purge-batch-size:5000}") int purgeBatchSize) {
+        this.auditLogRollupMapper = auditLogRollupMapper;
+        this.enabled = enabled;
+        this.minuteRetentionDays = minuteRetentionDays;
+        this.purgeBatchSize = purgeBatchSize;
+        this.failedCounter = Counter.builder("audit.log.rollup.failed")
+                .description("累加汇总计数失败的审计日志数")
+                .register(meterRegistry);
+        this.purgedCounter = Counter.builder("audit.log.rollup.purged")
+                .description("清理的过期按分钟计数行数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 累加已写库的审计日志
+     */
+    public void record(List<AuditLog> auditLogs) {
+        if (!enabled || auditLogs.isEmpty()) {
+            return;
+        }
+        try {
+            auditLogRollupMapper.upsertMinuteCounts(rollupCounts(auditLogs, ChronoUnit.MINUTES, false));
+            auditLogRollupMapper.upsertHourlyCounts(rollupCounts(auditLogs, ChronoUnit.HOURS, false));
+            auditLogRollupMapper.upsertUserHourlyCounts(rollupCounts(auditLogs, ChronoUnit.HOURS, true));
+        } catch (Exception e) {
+            failedCounter.increment(auditLogs.size());
+            logger.warn("审计日志汇总计数累加失败，条数: {}, error: {}", auditLogs.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 按分钟计数的保留期起点，早于该时间的按分钟计数会被清理，也不再重建
+     */
+    public LocalDateTime minuteRetentionStart() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusDays(minuteRetentionDays);
+    }
+
+    /**
+     * 分批清理超过保留期的按分钟计数
+     */
+    @Scheduled(fixedDelayString = "${audit-log.rollup.purge-interval:3600000}",
+            initialDelayString = "${audit-log.rollup.purge-interval:3600000}")
+    public void purgeMinuteCounts() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime before = minuteRetentionStart();
+        int total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = auditLogRollupMapper.deleteMinuteCountsBefore(before, purgeBatchSize);
+                total += deleted;
+                purgedCounter.increment(deleted);
+            } while (deleted >= purgeBatchSize);
+        } catch (Exception e) {
+            logger.warn("清理过期按分钟计数失败: {}", e.getMessage());
+        }
+        if (total > 0) {
+            logger.info("已清理{}之前的按分钟计数，行数: {}", before, total);
+        }
+    }
+
+    private static List<AuditLogRollupCount> rollupCounts(List<AuditLog> auditLogs, ChronoUnit unit, boolean byUser) {
+        Map<AuditLogRollupCount, AuditLogRollupCount> counts = new TreeMap<>(KEY_ORDER);
+        for (AuditLog auditLog : auditLogs) {
+            AuditLogRollupCount key = new AuditLogRollupCount();
+            LocalDateTime createdAt = auditLog.getCreatedAt() != null ? auditLog.getCreatedAt() : LocalDateTime.now();
+            key.setBucketTime(createdAt.truncatedTo(unit));
+            key.setUserId(!byUser ? null : auditLog.getUserId() != null ? auditLog.getUserId() : UNKNOWN_USER_ID);
+            key.setOperationType(String.valueOf(auditLog.getOperationType()));
+            key.setStatus(String.valueOf(auditLog.getStatus()));
+            key.setLogCount(0L);
+            AuditLogRollupCount count = counts.computeIfAbsent(key, k -> k);
+            count.setLogCount(count.getLogCount() + 1);
+        }
+        return new ArrayList<>(counts.values());
+    }
+}
@@ -0,0 +1,174 @@
+package com.logindemo.task;
+
+import com.logindemo.exception.BusinessException;
+import com.logindemo.mapper.AuditLogRollupMapper;
+import com.logindemo.utils.RedisUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 审计日志汇总计数重建任务
+ * 按整小时切块，从audit_logs重建时间范围内的按分钟、按小时、按用户按小时计数：每块在一个事务中先删除该块的计数行，
+ * 再以INSERT ... SELECT ... GROUP BY按created_at索引范围聚合写入，块与块之间短暂停顿，避免长事务和持续占用数据库。
+ * 只重建已结束的小时（当前小时仍在由写入路径累加），按分钟计数只重建保留期内的部分。
+ * 任务在后台线程中执行，多节点部署时通过Redis锁保证同一时刻只有一个节点执行
+ */
+@Component
+public class AuditLogRollupBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogRollupBackfill.class);
+
+    private static final String LOCK_KEY = "lock:audit-log-rollup-backfill";
+
+    private final AuditLogRollupMapper auditLogRollupMapper;
+
+    private final AuditLogRollup auditLogRollup;
+
+    private final RedisUtils redisUtils;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkHours;
+
+    private final long pauseMillis;
+
+    private final long chunkTimeoutMillis;
+
+    /**
+     * 锁持有者标识（节点唯一）
+     */
+    private final String lockOwner = UUID.randomUUID().toString();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Counter chunkCounter;
+
+    public AuditLogRollupBackfill(AuditLogRollupMapper auditLogRollupMapper,
+                                  AuditLogRollup auditLogRollup,
+                                  RedisUtils redisUtils,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${audit-log.rollup.backfill.chunk-hours:1}") int chunkHours,
+                                  @Value("${audit-log.rollup.backfill.pause:200}") long pauseMillis,
+                                  @Value("${audit-log.rollup.backfill.chunk-timeout:60000}") long chunkTimeoutMillis) {
+        this.auditLogRollupMapper = auditLogRollupMapper;
+        this.auditLogRollup = auditLogRollup;
+        this.redisUtils = redisUtils;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkHours = Math.max(1, chunkHours);
+        this.pauseMillis = pauseMillis;
+        this.chunkTimeoutMillis = chunkTimeoutMillis;
+        this.chunkCounter = Counter.builder("audit.log.rollup.backfill.chunks")
+                .description("已重建的汇总计数时间块数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在后台线程中重建时间范围内的汇总计数
+     * @param startTime 开始时间，向下取整到小时，为空时从最早一条审计日志开始
+     * @param endTime 结束时间，向上取整到小时且不超过当前小时，为空时到当前小时为止
+     * @return 实际重建的时间范围描述
+     */
+    public String start(LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = endTime == null ? currentHour : ceilHour(endTime);
+        if (end.isAfter(currentHour)) {
+            end = currentHour;
+        }
+        LocalDateTime start = startTime;
+        if (start == null) {
+            start = auditLogRollupMapper.selectEarliestAuditLogTime();
+            if (start == null) {
+                throw new BusinessException(400, "没有可重建的审计日志");
+            }
+        }
+        start = start.truncatedTo(ChronoUnit.HOURS);
+        if (!start.isBefore(end)) {
+            throw new BusinessException(400, "重建范围为空，只能重建已结束的小时");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessException(429, "汇总计数重建正在执行，请稍后再试");
+        }
+        long chunks = (ChronoUnit.HOURS.between(start, end) + chunkHours - 1) / chunkHours;
+        // 锁有效期覆盖整个重建过程，节点异常退出时锁自动释放
+        long lockTtl = Math.max(60000L, chunks * (pauseMillis + chunkTimeoutMillis));
+        if (!Boolean.TRUE.equals(redisUtils.tryLock(LOCK_KEY, lockOwner, lockTtl))) {
+            running.set(false);
+            throw new BusinessException(429, "汇总计数重建正由其他节点执行或Redis不可用，请稍后再试");
+        }
+        LocalDateTime rangeStart = start;
+        LocalDateTime rangeEnd = end;
+        Thread thread = new Thread(() -> run(rangeStart, rangeEnd), "audit-log-rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+        return rangeStart + " ~ " + rangeEnd;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void run(LocalDateTime start, LocalDateTime end) {
+        logger.info("开始重建审计日志汇总计数，范围: {} ~ {}", start, end);
+        long startedAt = System.currentTimeMillis();
+        long chunks = 0;
+        try {
+            LocalDateTime chunkStart = start;
+            while (chunkStart.isBefore(end)) {
+                LocalDateTime chunkEnd = chunkStart.plusHours(chunkHours);
+                if (chunkEnd.isAfter(end)) {
+                    chunkEnd = end;
+                }
+                rebuildChunk(chunkStart, chunkEnd);
+                chunkCounter.increment();
+                chunks++;
+                chunkStart = chunkEnd;
+                if (chunkStart.isBefore(end)) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+            logger.info("审计日志汇总计数重建完成，块数: {}, 耗时: {}ms", chunks, System.currentTimeMillis() - startedAt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("审计日志汇总计数重建被中断，已完成块数: {}", chunks);
+        } catch (Exception e) {
+            logger.error("审计日志汇总计数重建失败，已完成块数: {}", chunks, e);
+        } finally {
+            redisUtils.unlock(LOCK_KEY, lockOwner);
+            running.set(false);
+        }
+    }
+
+    /**
+     * 在一个事务中重建一块时间范围的计数，失败时整块回滚，不留下删除了一半的计数
+     */
+    private void rebuildChunk(LocalDateTime chunkStart, LocalDateTime chunkEnd) {
+        LocalDateTime minuteStart = auditLogRollup.minuteRetentionStart();
+        transactionTemplate.executeWithoutResult(status -> {
+            auditLogRollupMapper.deleteHourlyCounts(chunkStart, chunkEnd);
+            auditLogRollupMapper.rebuildHourlyCounts(chunkStart, chunkEnd);
+            auditLogRollupMapper.deleteUserHourlyCounts(chunkStart, chunkEnd);
+            auditLogRollupMapper.rebuildUserHourlyCounts(chunkStart, chunkEnd);
+            if (chunkEnd.isAfter(minuteStart)) {
+                LocalDateTime from = chunkStart.isBefore(minuteStart) ? minuteStart : chunkStart;
+                auditLogRollupMapper.deleteMinuteCounts(from, chunkEnd);
+                auditLogRollupMapper.rebuildMinuteCounts(from, chunkEnd);
+            }
+        });
+    }
+
+    private static LocalDateTime ceilHour(LocalDateTime time) {
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        return hour.equals(time) ? hour : hour.plusHours(1);
+    }
+}
@@ -0,0 +1,211 @@
+package com.logindemo.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logindemo.model.AuditLog;
+import com.logindemo.utils.MappedSpool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 审计日志本地落盘缓冲
+ * 数据库写入失败或写入队列已满时，审计日志追加到本地内存映射文件（MappedSpool，CRC校验帧），
+ * 追加只是内存拷贝，不受MySQL延迟影响；独立的重放线程在数据库恢复后按批重放到audit_logs
+ * （数据库不可用时每次重放都会阻塞到连接超时，不占用共享的调度线程），
+ * 重放成功后提交消费进度。重放通过AuditLogBatchInserter写库：数据错误的记录被丢弃，消费进度照常前进，
+ * 不会因一条坏记录永久阻塞重放；只有连接失败、超时等暂时性错误才停止本次重放、不提交进度。
+ * 重放是至少一次语义，进程在写库后、提交进度前退出，或一批中部分写入后遇到暂时性错误时，可能产生重复记录
+ */
+@Component
+public class AuditLogSpool {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogSpool.class);
+
+    private final AuditLogBatchInserter auditLogBatchInserter;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    private final String directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final long shipIntervalMillis;
+
+    private final int shipBatchSize;
+
+    private volatile MappedSpool spool;
+
+    private ScheduledExecutorService shipper;
+
+    private final Counter spooledCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Counter shippedCounter;
+
+    public AuditLogSpool(AuditLogBatchInserter auditLogBatchInserter,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${audit-log.spool.enabled:true}") boolean enabled,
+                         @Value("${audit-log.spool.dir:logs/audit-spool}") String directory,
+                         @Value("${audit-log.spool.segment-size:16777216}") int segmentSize,
+                         @Value("${audit-log.spool.max-segments:64}") int maxSegments,
+                         @Value("${audit-log.spool.ship-interval:5000}") long shipIntervalMillis,
+                         @Value("${audit-log.spool.ship-batch-size:500}") int shipBatchSize) {
+        this.auditLogBatchInserter = auditLogBatchInserter;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.shipIntervalMillis = shipIntervalMillis;
+        this.shipBatchSize = shipBatchSize;
+        this.spooledCounter = Counter.builder("audit.log.spooled")
+                .description("写入本地缓冲的审计日志数")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("audit.log.spool.rejected")
+                .description("本地缓冲已满或不可用而丢弃的审计日志数")
+                .register(meterRegistry);
+        this.shippedCounter = Counter.builder("audit.log.spool.shipped")
+                .description("从本地缓冲重放到数据库的审计日志数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            MappedSpool opened = new MappedSpool(Paths.get(directory), segmentSize, maxSegments);
+            Gauge.builder("audit.log.spool.pending", opened, MappedSpool::pendingBytes)
+                    .description("本地缓冲中待重放的字节数")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            this.spool = opened;
+            if (!opened.isEmpty()) {
+                logger.info("审计日志本地缓冲中有待重放的数据，字节数: {}", opened.pendingBytes());
+            }
+            shipper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "audit-log-spool-shipper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            shipper.scheduleWithFixedDelay(this::ship, shipIntervalMillis, shipIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // 本地缓冲不可用时不影响启动，写库失败的审计日志将被丢弃
+            logger.error("审计日志本地缓冲初始化失败，目录: {}", directory, e);
+        }
+    }
+
+    /**
+     * 追加一条审计日志
+     * @return 是否写入成功
+     */
+    public boolean append(AuditLog auditLog) {
+        return append(Collections.singletonList(auditLog)) == 1;
+    }
+
+    /**
+     * 追加一批审计日志
+     * @return 写入成功的条数
+     */
+    public int append(List<AuditLog> auditLogs) {
+        MappedSpool current = spool;
+        int appended = 0;
+        if (current != null) {
+            try {
+                for (AuditLog auditLog : auditLogs) {
+                    if (!current.append(objectMapper.writeValueAsBytes(auditLog))) {
+                        break;
+                    }
+                    appended++;
+                }
+            } catch (Exception e) {
+                logger.error("审计日志写入本地缓冲失败", e);
+            }
+        }
+        spooledCounter.increment(appended);
+        rejectedCounter.increment(auditLogs.size() - appended);
+        return appended;
+    }
+
+    /**
+     * 将本地缓冲中的审计日志按批重放到数据库，数据库仍不可用时停止，下次再试
+     */
+    public void ship() {
+        MappedSpool current = spool;
+        if (current == null || current.isEmpty()) {
+            return;
+        }
+        long shipped = 0;
+        try {
+            while (true) {
+                MappedSpool.Batch batch = current.peek(shipBatchSize);
+                if (batch.getRecords().isEmpty()) {
+                    current.commit(batch);
+                    break;
+                }
+                List<AuditLog> auditLogs = new ArrayList<>(batch.getRecords().size());
+                for (byte[] record : batch.getRecords()) {
+                    try {
+                        auditLogs.add(objectMapper.readValue(record, AuditLog.class));
+                    } catch (Exception e) {
+                        logger.warn("跳过无法解析的审计日志缓冲记录: {}", e.getMessage());
+                    }
+                }
+                AuditLogBatchInserter.Result result = auditLogBatchInserter.insert(auditLogs);
+                if (!result.getPending().isEmpty()) {
+                    logger.warn("审计日志本地缓冲重放失败，稍后重试: {}", result.getError().getMessage());
+                    break;
+                }
+                current.commit(batch);
+                shipped += result.getWritten().size();
+                shippedCounter.increment(result.getWritten().size());
+            }
+        } catch (Exception e) {
+            logger.warn("审计日志本地缓冲重放失败，稍后重试: {}", e.getMessage());
+        }
+        if (shipped > 0) {
+            logger.info("审计日志本地缓冲已重放，条数: {}", shipped);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (shipper != null) {
+            shipper.shutdownNow();
+            try {
+                // 等待进行中的重放结束后再关闭缓冲文件
+                shipper.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        MappedSpool current = spool;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
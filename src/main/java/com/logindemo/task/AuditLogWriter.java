@@ -0,0 +1,263 @@
+package com.logindemo.task;
+
+import com.logindemo.model.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 审计日志异步批量写入器
+ * 请求线程只把审计日志放入有界环形队列（ArrayBlockingQueue），由单个写入线程取出后按批量大小或时间窗口
+ * 合并为一条多行INSERT写入，登录、注册等接口不再为每条审计日志承担一次事务、连接获取和提交。
+ * 队列满时按overflow-policy处理：spool写入本地缓冲（AuditLogSpool，由后台任务重放），drop-newest丢弃新日志，
+ * drop-oldest丢弃最旧日志，block等待block-timeout后仍无空位则丢弃，caller-runs由请求线程直接写库。
+ * 写库由AuditLogBatchInserter完成：单行数据错误只丢弃该行，不连累同批的其他日志；
+ * 因连接失败、超时等暂时性错误未写入的日志同样写入本地缓冲，数据库恢复后重放。
+ * 应用关闭时写入线程写完队列中剩余的日志后退出
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        SPOOL, DROP_NEWEST, DROP_OLDEST, BLOCK, CALLER_RUNS
+    }
+
+    private final AuditLogBatchInserter auditLogBatchInserter;
+
+    private final AuditLogSpool auditLogSpool;
+
+    private final boolean enabled;
+
+    private final ArrayBlockingQueue<AuditLog> queue;
+
+    private final int batchSize;
+
+    private final long flushIntervalMillis;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final long blockTimeoutMillis;
+
+    private final long shutdownTimeoutMillis;
+
+    private final Thread writerThread;
+
+    private volatile boolean running = true;
+
+    private final Counter writtenCounter;
+
+    private final Counter droppedCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer lagTimer;
+
+    private final Timer batchTimer;
+
+    public AuditLogWriter(AuditLogBatchInserter auditLogBatchInserter,
+                          AuditLogSpool auditLogSpool,
+                          MeterRegistry meterRegistry,
+                          @Value("${audit-log.writer.enabled:true}") boolean enabled,
+                          @Value("${audit-log.writer.queue-capacity:8192}") int queueCapacity,
+                          @Value("${audit-log.writer.batch-size:200}") int batchSize,
+                          @Value("${audit-log.writer.flush-interval:200}") long flushIntervalMillis,
+                          @Value("${audit-log.writer.overflow-policy:spool}") String overflowPolicy,
+                          @Value("${audit-log.writer.block-timeout:50}") long blockTimeoutMillis,
+                          @Value("${audit-log.writer.shutdown-timeout:10000}") long shutdownTimeoutMillis) {
+        this.auditLogBatchInserter = auditLogBatchInserter;
+        this.auditLogSpool = auditLogSpool;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.writerThread = new Thread(this::run, "audit-log-writer");
+        this.writerThread.setDaemon(true);
+
+        Gauge.builder("audit.log.queue.depth", queue, ArrayBlockingQueue::size)
+                .description("等待写入的审计日志数")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("audit.log.written")
+                .description("已写入数据库的审计日志数")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("audit.log.dropped")
+                .description("因队列已满被丢弃（或转入本地缓冲）的审计日志数")
+                .tag("policy", this.overflowPolicy.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("audit.log.write.failed")
+                .description("写库失败的审计日志数（失败后转入本地缓冲）")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("audit.log.write.lag")
+                .description("审计日志从产生到写入数据库的延迟（按批次中最早的日志计算）")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("audit.log.write.batch")
+                .description("单次批量INSERT耗时")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            writerThread.start();
+            logger.info("审计日志异步写入已启动，队列容量: {}, 批量大小: {}, 时间窗口: {}ms, 溢出策略: {}",
+                    queue.remainingCapacity(), batchSize, flushIntervalMillis, overflowPolicy);
+        }
+    }
+
+    /**
+     * 提交审计日志，不等待写库
+     */
+    public void submit(AuditLog auditLog) {
+        if (!enabled || !running) {
+            writeSync(auditLog);
+            return;
+        }
+        if (queue.offer(auditLog)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case SPOOL:
+                droppedCounter.increment();
+                auditLogSpool.append(auditLog);
+                break;
+            case DROP_OLDEST:
+                // 腾出一个位置；并发提交时可能再次被占用，此时丢弃本条
+                if (queue.poll() != null) {
+                    droppedCounter.increment();
+                }
+                if (!queue.offer(auditLog)) {
+                    droppedCounter.increment();
+                }
+                break;
+            case BLOCK:
+                try {
+                    if (!queue.offer(auditLog, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        droppedCounter.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCounter.increment();
+                }
+                break;
+            case CALLER_RUNS:
+                writeSync(auditLog);
+                break;
+            default:
+                droppedCounter.increment();
+                break;
+        }
+    }
+
+    /**
+     * 应用关闭时停止接收新日志，等待写入线程写完队列中剩余的日志
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (!writerThread.isAlive()) {
+            return;
+        }
+        try {
+            writerThread.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.warn("审计日志写入线程未能在{}ms内写完，剩余{}条未写入", shutdownTimeoutMillis, queue.size());
+        }
+    }
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 取出一批日志：凑满batchSize或自第一条日志起超过flushInterval即返回
+     */
+    private void collectBatch(List<AuditLog> batch) throws InterruptedException {
+        AuditLog first = running ? queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS) : queue.poll();
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeBatch(List<AuditLog> batch) {
+        AuditLogBatchInserter.Result result = batchTimer.record(() -> auditLogBatchInserter.insert(batch));
+        writtenCounter.increment(result.getWritten().size());
+        if (!result.getWritten().isEmpty()) {
+            LocalDateTime oldest = batch.get(0).getCreatedAt();
+            if (oldest != null) {
+                lagTimer.record(Duration.between(oldest, LocalDateTime.now()));
+            }
+            logger.debug("审计日志已批量写入，条数: {}", result.getWritten().size());
+        }
+        List<AuditLog> pending = result.getPending();
+        if (!pending.isEmpty()) {
+            failedCounter.increment(pending.size());
+            int spooled = auditLogSpool.append(pending);
+            logger.error("审计日志批量写入失败，{}条转入本地缓冲，{}条丢失", spooled, pending.size() - spooled,
+                    result.getError());
+        }
+    }
+
+    private void writeSync(AuditLog auditLog) {
+        AuditLogBatchInserter.Result result = auditLogBatchInserter.insert(List.of(auditLog));
+        writtenCounter.increment(result.getWritten().size());
+        if (!result.getPending().isEmpty()) {
+            failedCounter.increment();
+            if (auditLogSpool.append(auditLog)) {
+                logger.warn("记录审计日志失败，已转入本地缓冲: {}", result.getError().getMessage());
+            } else {
+                logger.error("记录审计日志失败", result.getError());
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.logindemo.task;
+
+import com.logindemo.mapper.MockDataMapper;
+import com.logindemo.utils.RedisUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * mock_data表清理任务
+ * 定时分批删除已过期（expire_time索引范围）和已使用/已过期状态（status索引）的行，
+ * 每批之间短暂停顿，避免长事务和持续锁表；多节点部署时通过Redis锁保证同一时刻只有一个节点执行，
+ * Redis不可用时各节点照常在本地执行（按批DELETE ... LIMIT可重复执行，并发执行只是多删几批空结果）。
+ * 清理在独立线程中执行，定时任务只负责派发，一次耗时较长的清理不会占用共享的调度线程
+ */
+@Component
+public class MockDataSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockDataSweeper.class);
+
+    private static final String LOCK_KEY = "lock:mock-data-sweeper";
+
+    private final MockDataMapper mockDataMapper;
+
+    private final RedisUtils redisUtils;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final long pauseMillis;
+
+    private final int maxBatches;
+
+    private final long inactiveRetentionSeconds;
+
+    /**
+     * 锁持有者标识（节点唯一）
+     */
+    private final String lockOwner = UUID.randomUUID().toString();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mock-data-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Counter expiredCounter;
+
+    private final Counter inactiveCounter;
+
+    private final Timer runTimer;
+
+    public MockDataSweeper(MockDataMapper mockDataMapper,
+                           RedisUtils redisUtils,
+                           MeterRegistry meterRegistry,
+                           @Value("${mock-data-sweeper.enabled:true}") boolean enabled,
+                           @Value("${mock-data-sweeper.batch-size:1000}") int batchSize,
+                           @Value("${mock-data-sweeper.pause:100}") long pauseMillis,
+                           @Value("${mock-data-sweeper.max-batches:500}") int maxBatches,
+                           @Value("${mock-data-sweeper.inactive-retention:3600}") long inactiveRetentionSeconds) {
+        this.mockDataMapper = mockDataMapper;
+        this.redisUtils = redisUtils;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatches = maxBatches;
+        this.inactiveRetentionSeconds = inactiveRetentionSeconds;
+        this.expiredCounter = Counter.builder("mock_data.sweeper.deleted")
+                .description("清理任务删除的mock_data行数")
+                .tag("reason", "expired")
+                .register(meterRegistry);
+        this.inactiveCounter = Counter.builder("mock_data.sweeper.deleted")
+                .description("清理任务删除的mock_data行数")
+                .tag("reason", "inactive")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("mock_data.sweeper.run")
+                .description("单次清理任务耗时")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${mock-data-sweeper.interval:600000}",
+            initialDelayString = "${mock-data-sweeper.interval:600000}")
+    public void sweep() {
+        // 上一次清理仍在执行时跳过本次
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    sweepNow();
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (Exception e) {
+            running.set(false);
+            logger.warn("mock_data清理任务派发失败: {}", e.getMessage());
+        }
+    }
+
+    private void sweepNow() {
+        // 锁有效期覆盖单次执行的最长时间，节点异常退出时锁自动释放
+        long lockTtl = Math.max(60000L, maxBatches * 2L * (pauseMillis + 1000L));
+        Boolean locked = redisUtils.tryLock(LOCK_KEY, lockOwner, lockTtl);
+        if (Boolean.FALSE.equals(locked)) {
+            logger.debug("mock_data清理任务正由其他节点执行，跳过本次");
+            return;
+        }
+        if (locked == null) {
+            logger.warn("Redis不可用，mock_data清理任务在本节点执行");
+        }
+        try {
+            runTimer.record(() -> {
+                LocalDateTime now = LocalDateTime.now();
+                int expired = deleteInBatches(() -> mockDataMapper.deleteExpiredBatch(now, batchSize), expiredCounter);
+                LocalDateTime updatedBefore = now.minusSeconds(inactiveRetentionSeconds);
+                int inactive = deleteInBatches(() -> mockDataMapper.deleteInactiveBatch(updatedBefore, batchSize), inactiveCounter);
+                if (expired > 0 || inactive > 0) {
+                    logger.info("mock_data清理完成，过期行: {}, 已使用/已过期状态行: {}", expired, inactive);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("mock_data清理失败: {}", e.getMessage());
+        } finally {
+            if (locked != null) {
+                redisUtils.unlock(LOCK_KEY, lockOwner);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 循环删除直到不足一批或达到单次执行的批次上限
+     */
+    private int deleteInBatches(IntSupplier deleteBatch, Counter counter) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int deleted = deleteBatch.getAsInt();
+            total += deleted;
+            counter.increment(deleted);
+            if (deleted < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,138 @@
+package com.logindemo.utils;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Base64;
+
+/**
+ * HMAC Token快速签发器
+ * 与jjwt构建器签发的Token逐字节一致：Token头预先编码，固定声明集直接拼接JSON，
+ * 每个线程复用一个已初始化密钥的Mac实例，省去每次签发的Map、Date、构建器和Mac创建开销。
+ * 仅支持HMAC算法（HS256/HS384/HS512），ES256等非对称算法仍走jjwt构建器
+ */
+public final class HmacTokenSigner {
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private static final char[] HEX_CHARS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * 预编码的Token头（含末尾的"."）
+     */
+    private final String encodedHeader;
+
+    private final ThreadLocal<Mac> macs;
+
+    public HmacTokenSigner(SignatureAlgorithm algorithm, Key key, String keyId) {
+        if (!algorithm.isHmac()) {
+            throw new IllegalArgumentException("HmacTokenSigner仅支持HMAC算法: " + algorithm.getValue());
+        }
+        // 与jjwt一致：先写入的头参数（kid）在前，alg在签名时写入
+        StringBuilder header = new StringBuilder(64).append('{');
+        if (keyId != null) {
+            header.append("\"kid\":");
+            appendJsonString(header, keyId);
+            header.append(',');
+        }
+        header.append("\"alg\":\"").append(algorithm.getValue()).append("\"}");
+        this.encodedHeader = base64Url(header.toString()) + ".";
+        // 提前创建一次，密钥不可用时启动即失败
+        Mac probe = newMac(algorithm, key);
+        this.macs = ThreadLocal.withInitial(() -> newMac(algorithm, key));
+        this.macs.set(probe);
+    }
+
+    /**
+     * 签发Token
+     * 声明顺序与jjwt构建器输出一致：iat_ms, sub, type, username, jti, iat, exp，值为null的声明不输出
+     * @param issuedAt 签发时间（毫秒），iat_ms按毫秒输出，iat按秒输出
+     * @param expiresAt 过期时间（毫秒），exp按秒输出
+     */
+    public String sign(Long userId, String username, String type, String tokenId, long issuedAt, long expiresAt) {
+        StringBuilder payload = new StringBuilder(160).append('{');
+        payload.append('"').append(VerifiedToken.CLAIM_ISSUED_AT_MILLIS).append("\":").append(issuedAt).append(',');
+        if (userId != null) {
+            payload.append("\"sub\":").append(userId).append(',');
+        }
+        appendStringClaim(payload, "type", type);
+        appendStringClaim(payload, "username", username);
+        appendStringClaim(payload, "jti", tokenId);
+        payload.append("\"iat\":").append(issuedAt / 1000)
+                .append(",\"exp\":").append(expiresAt / 1000)
+                .append('}');
+
+        String signingInput = encodedHeader + base64Url(payload.toString());
+        Mac mac = macs.get();
+        byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + BASE64_URL.encodeToString(signature);
+    }
+
+    private static Mac newMac(SignatureAlgorithm algorithm, Key key) {
+        try {
+            Mac mac = Mac.getInstance(algorithm.getJcaName());
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化" + algorithm.getJcaName() + "失败", e);
+        }
+    }
+
+    private static String base64Url(String json) {
+        return BASE64_URL.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 写入字符串声明，与jjwt一致：值为null的声明不输出
+     */
+    private static void appendStringClaim(StringBuilder sb, String name, String value) {
+        if (value != null) {
+            sb.append('"').append(name).append("\":");
+            appendJsonString(sb, value);
+            sb.append(',');
+        }
+    }
+
+    /**
+     * 按Jackson默认规则转义JSON字符串（jjwt使用Jackson序列化声明）
+     */
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\b':
+                    sb.append("\\b");
+                    break;
+                case '\f':
+                    sb.append("\\f");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append("\\u00").append(HEX_CHARS[c >> 4]).append(HEX_CHARS[c & 0xF]);
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -1,10 +1,15 @@
 package com.logindemo.utils;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * HTTP请求工具类
@@ -12,8 +17,29 @@ import javax.servlet.http.HttpServletRequest;
 @Component
 public class HttpRequestUtils {
     
+    /**
+     * IPv4或IPv6字面量（不含主机名，解析时不会触发DNS查询）
+     */
+    private static final Pattern IP_LITERAL_PATTERN =
+            Pattern.compile("^(\\d{1,3}(\\.\\d{1,3}){3}|[0-9a-fA-F:.]*:[0-9a-fA-F:.]*)$");
+    
+    /**
+     * 可信代理（IP或CIDR），只有来自这些地址的X-Forwarded-For才被采信
+     */
+    private final List<IpAddressMatcher> trustedProxies = new ArrayList<>();
+    
+    public HttpRequestUtils(@Value("${http-request.trusted-proxies:127.0.0.1,::1}") String[] trustedProxies) {
+        for (String proxy : trustedProxies) {
+            if (!proxy.trim().isEmpty()) {
+                this.trustedProxies.add(new IpAddressMatcher(proxy.trim()));
+            }
+        }
+    }
+    
     /**
      * 获取客户端IP地址
+     * 直连地址不是可信代理时直接使用直连地址；否则从X-Forwarded-For右侧向左跳过可信代理，
+     * 取第一个不可信的地址。客户端自行伪造的X-Forwarded-For只会出现在最左侧，不会被采信
      */
     public String getClientIp() {
         ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
@@ -22,29 +48,39 @@ public class HttpRequestUtils {
         }
         
         HttpServletRequest request = attributes.getRequest();
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
+        String ip = request.getRemoteAddr();
+        if (ip == null || !isTrustedProxy(ip)) {
+            return ip == null ? "unknown" : ip;
         }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor == null || forwardedFor.isEmpty()) {
+            return ip;
         }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_CLIENT_IP");
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!IP_LITERAL_PATTERN.matcher(hop).matches()) {
+                // 无法识别的值（如unknown或伪造的主机名）之前的部分都不可信，停在当前已知的地址
+                break;
+            }
+            ip = hop;
+            if (!isTrustedProxy(hop)) {
+                break;
+            }
         }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_X_FORWARDED_FOR");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
+        return ip;
+    }
+    
+    private boolean isTrustedProxy(String ip) {
+        if (!IP_LITERAL_PATTERN.matcher(ip).matches()) {
+            return false;
         }
-        
-        // 处理多个IP的情况，取第一个
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
+        for (IpAddressMatcher matcher : trustedProxies) {
+            if (matcher.matches(ip)) {
+                return true;
+            }
         }
-        
-        return ip == null ? "unknown" : ip;
+        return false;
     }
     
     /**
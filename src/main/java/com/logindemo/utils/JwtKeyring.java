@@ -0,0 +1,278 @@
+package com.logindemo.utils;
+
+import com.logindemo.config.JwtKeyringProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JWT密钥环
+ * 管理签名密钥与验签密钥，支持两种配置方式：
+ * 1. 单密钥（未配置jwt.keyring.keys时）：
+ *    HS512（默认）使用jwt.secret共享密钥签名，Token头不带kid；
+ *    ES256使用EC私钥签名，Token头带kid，公钥通过JWKS接口发布，下游服务可在本地验签
+ * 2. 多密钥（jwt.keyring）：active-kid对应的密钥签名，其余密钥只验签，用于不停机轮换：
+ *    先加入新密钥（只验签、公钥提前发布）→ 切换active-kid → 旧密钥保留至其签发的Token全部过期后再移除
+ * 验签时按Token头中的kid查表选择密钥，未带kid的存量Token使用jwt.secret验签
+ */
+@Component
+public class JwtKeyring extends SigningKeyResolverAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyring.class);
+
+    private final SignatureAlgorithm signingAlgorithm;
+
+    private final String signingKeyId;
+
+    private final Key signingKey;
+
+    /**
+     * 未带kid的Token使用的验签密钥（jwt.secret），未配置时为null
+     */
+    private final Key legacyKey;
+
+    /**
+     * kid -> 验签密钥
+     */
+    private final Map<String, Key> verificationKeys = new HashMap<>();
+
+    /**
+     * 对外发布的公钥（JWK格式）
+     */
+    private final List<Map<String, Object>> publicJwks = new ArrayList<>();
+
+    @Autowired
+    public JwtKeyring(JwtKeyringProperties keyringProperties,
+                      @Value("${jwt.secret:}") String secret,
+                      @Value("${jwt.algorithm:HS512}") String algorithm,
+                      @Value("${jwt.key-id:}") String keyId,
+                      @Value("${jwt.ec.private-key:}") String ecPrivateKey,
+                      @Value("${jwt.ec.public-key:}") String ecPublicKey) {
+        boolean keyringMode = keyringProperties != null && !keyringProperties.getKeys().isEmpty();
+        this.legacyKey = createLegacyKey(secret, !keyringMode);
+        if (keyringMode) {
+            SigningEntry active = loadKeyring(keyringProperties);
+            this.signingAlgorithm = active.algorithm;
+            this.signingKeyId = active.keyId;
+            this.signingKey = active.key;
+        } else {
+            this.signingAlgorithm = SignatureAlgorithm.forName(algorithm);
+            if (signingAlgorithm == SignatureAlgorithm.HS512) {
+                this.signingKeyId = null;
+                this.signingKey = legacyKey;
+            } else if (signingAlgorithm == SignatureAlgorithm.ES256) {
+                if (ecPrivateKey.isEmpty() || ecPublicKey.isEmpty() || keyId.isEmpty()) {
+                    throw new IllegalStateException("ES256签名模式需要配置jwt.key-id、jwt.ec.private-key和jwt.ec.public-key");
+                }
+                this.signingKeyId = keyId;
+                this.signingKey = parsePrivateKey(ecPrivateKey);
+                addPublicKey(keyId, (ECPublicKey) parsePublicKey(ecPublicKey));
+            } else {
+                throw new IllegalStateException("不支持的JWT签名算法: " + algorithm + "，可选值: HS512, ES256");
+            }
+        }
+        logger.info("JWT签名算法: {}, kid: {}, 验签密钥数: {}",
+                signingAlgorithm.getValue(), signingKeyId, verificationKeys.size() + (legacyKey != null ? 1 : 0));
+    }
+
+    /**
+     * 单密钥HS512配置的便捷构造（用于脱离Spring容器的场景，如基准测试）
+     */
+    public JwtKeyring(String secret) {
+        this(null, secret, SignatureAlgorithm.HS512.getValue(), "", "", "");
+    }
+
+    /**
+     * 创建未带kid的存量Token使用的密钥
+     * 不再为过短的jwt.secret生成进程内随机密钥：随机密钥导致多节点之间、每次重启之后Token全部失效
+     */
+    private static Key createLegacyKey(String secret, boolean required) {
+        if (secret == null || secret.isEmpty()) {
+            if (required) {
+                throw new IllegalStateException("未配置jwt.secret");
+            }
+            return null;
+        }
+        if (secret.length() < 64) {
+            throw new IllegalStateException("jwt.secret长度不足64个字符，无法用于HS512签名");
+        }
+        return Keys.hmacShaKeyFor(secret.getBytes());
+    }
+
+    /**
+     * 加载多密钥配置，返回签名密钥
+     */
+    private SigningEntry loadKeyring(JwtKeyringProperties properties) {
+        SigningEntry active = null;
+        for (JwtKeyringProperties.Key config : properties.getKeys()) {
+            String kid = config.getKid();
+            if (kid == null || kid.isEmpty()) {
+                throw new IllegalStateException("jwt.keyring.keys中存在未配置kid的密钥");
+            }
+            if (verificationKeys.containsKey(kid)) {
+                throw new IllegalStateException("jwt.keyring.keys中kid重复: " + kid);
+            }
+            boolean isActive = kid.equals(properties.getActiveKid());
+            SignatureAlgorithm algorithm = SignatureAlgorithm.forName(config.getAlgorithm());
+            if (algorithm == SignatureAlgorithm.HS512) {
+                if (config.getSecret() == null || config.getSecret().length() < 64) {
+                    throw new IllegalStateException("密钥" + kid + "的secret长度不足64个字符");
+                }
+                Key key = Keys.hmacShaKeyFor(config.getSecret().getBytes());
+                verificationKeys.put(kid, key);
+                if (isActive) {
+                    active = new SigningEntry(kid, algorithm, key);
+                }
+            } else if (algorithm == SignatureAlgorithm.ES256) {
+                if (config.getPublicKey() == null || config.getPublicKey().isEmpty()) {
+                    throw new IllegalStateException("密钥" + kid + "未配置public-key");
+                }
+                addPublicKey(kid, (ECPublicKey) parsePublicKey(config.getPublicKey()));
+                if (isActive) {
+                    if (config.getPrivateKey() == null || config.getPrivateKey().isEmpty()) {
+                        throw new IllegalStateException("签名密钥" + kid + "未配置private-key");
+                    }
+                    active = new SigningEntry(kid, algorithm, parsePrivateKey(config.getPrivateKey()));
+                }
+            } else {
+                throw new IllegalStateException("密钥" + kid + "使用了不支持的算法: " + config.getAlgorithm());
+            }
+        }
+        if (active == null) {
+            throw new IllegalStateException("jwt.keyring.active-kid未配置或不在密钥列表中: " + properties.getActiveKid());
+        }
+        return active;
+    }
+
+    private void addPublicKey(String keyId, ECPublicKey publicKey) {
+        verificationKeys.put(keyId, publicKey);
+        publicJwks.add(toJwk(keyId, publicKey));
+    }
+
+    public SignatureAlgorithm getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    /**
+     * 签名密钥的kid，HS512模式下为null（Token头不带kid）
+     */
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * 当前对外发布的公钥列表（JWK格式）
+     */
+    public List<Map<String, Object>> getPublicJwks() {
+        return Collections.unmodifiableList(publicJwks);
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String keyId = header.getKeyId();
+        if (keyId == null) {
+            if (legacyKey == null) {
+                throw new SignatureException("Token未携带kid");
+            }
+            return legacyKey;
+        }
+        Key key = verificationKeys.get(keyId);
+        if (key == null) {
+            throw new SignatureException("未知的签名密钥kid: " + keyId);
+        }
+        return key;
+    }
+
+    private static PrivateKey parsePrivateKey(String encoded) {
+        try {
+            return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(decodePem(encoded)));
+        } catch (Exception e) {
+            throw new IllegalStateException("解析EC私钥失败（需要PKCS#8格式）", e);
+        }
+    }
+
+    private static PublicKey parsePublicKey(String encoded) {
+        try {
+            return KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(decodePem(encoded)));
+        } catch (Exception e) {
+            throw new IllegalStateException("解析EC公钥失败（需要X.509格式）", e);
+        }
+    }
+
+    /**
+     * 解码PEM或纯Base64格式的密钥
+     */
+    private static byte[] decodePem(String encoded) {
+        String base64 = encoded.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static Map<String, Object> toJwk(String keyId, ECPublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", SignatureAlgorithm.ES256.getValue());
+        jwk.put("x", encodeCoordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", encodeCoordinate(publicKey.getW().getAffineY()));
+        return jwk;
+    }
+
+    /**
+     * 将椭圆曲线坐标编码为定长（32字节）无符号大端Base64URL
+     */
+    private static String encodeCoordinate(BigInteger coordinate) {
+        byte[] bytes = coordinate.toByteArray();
+        byte[] fixed = new byte[32];
+        if (bytes.length > 32) {
+            bytes = Arrays.copyOfRange(bytes, bytes.length - 32, bytes.length);
+        }
+        System.arraycopy(bytes, 0, fixed, 32 - bytes.length, bytes.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    /**
+     * 签名密钥
+     */
+    private static final class SigningEntry {
+        private final String keyId;
+        private final SignatureAlgorithm algorithm;
+        private final Key key;
+
+        SigningEntry(String keyId, SignatureAlgorithm algorithm, Key key) {
+            this.keyId = keyId;
+            this.algorithm = algorithm;
+            this.key = key;
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.logindemo.utils;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,8 +23,8 @@ import java.util.Base64;
 @Component
 public class JwtUtils {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    @Autowired
+    private JwtKeyring keyring;
 
     @Value("${jwt.expiration}")
     private long expiration;
@@ -27,82 +32,104 @@ public class JwtUtils {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
-    // 懒加载方式创建SecretKey
-    private SecretKey cachedKey;
-
-    private SecretKey getSecretKey() {
-        if (cachedKey == null) {
-            // 如果密钥长度不足，可以通过Base64编码或者使用Keys.secretKeyFor方法生成
-            if (secret.length() < 64) {
-                // 使用Keys.secretKeyFor方法生成符合算法要求的密钥
-                cachedKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
-            } else {
-                // 如果密钥已经足够长，直接使用
-                cachedKey = Keys.hmacShaKeyFor(secret.getBytes());
+    // 懒加载方式创建解析器（线程安全，可复用）
+    private volatile JwtParser cachedParser;
+
+    // 懒加载方式创建HMAC快速签发器，非HMAC签名算法时为null
+    private volatile HmacTokenSigner hmacSigner;
+
+    private volatile boolean hmacSignerResolved;
+
+    private static final SecureRandom TOKEN_ID_RANDOM = new SecureRandom();
+
+    /**
+     * Token标识（jti）随机字节数，Base64URL编码后为16个字符
+     */
+    private static final int TOKEN_ID_BYTES = 12;
+
+    private JwtParser getParser() {
+        if (cachedParser == null) {
+            // 按Token头中的kid从密钥环选择验签密钥
+            cachedParser = Jwts.parserBuilder()
+                    .setSigningKeyResolver(keyring)
+                    .build();
+        }
+        return cachedParser;
+    }
+
+    private HmacTokenSigner getHmacSigner() {
+        if (!hmacSignerResolved) {
+            if (keyring.getSigningAlgorithm().isHmac()) {
+                hmacSigner = new HmacTokenSigner(
+                        keyring.getSigningAlgorithm(), keyring.getSigningKey(), keyring.getSigningKeyId());
             }
+            hmacSignerResolved = true;
+        }
+        return hmacSigner;
+    }
+
+    /**
+     * 使用密钥环当前的签名密钥签名，非HS512模式下在Token头写入kid
+     */
+    private String sign(JwtBuilder builder) {
+        if (keyring.getSigningKeyId() != null) {
+            builder.setHeaderParam("kid", keyring.getSigningKeyId());
         }
-        return cachedKey;
+        return builder.signWith(keyring.getSigningKey(), keyring.getSigningAlgorithm()).compact();
     }
 
     /**
      * 生成访问Token
      */
     public String generateAccessToken(Long userId, String username) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("sub", userId);
-        claims.put("username", username);
-        claims.put("type", "access");
-        
-        return Jwts.builder()
-                .setClaims(claims)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSecretKey(), SignatureAlgorithm.HS512)
-                .compact();
+        return generateToken(userId, username, VerifiedToken.TYPE_ACCESS, expiration);
     }
 
     /**
      * 生成刷新Token
      */
     public String generateRefreshToken(Long userId, String username) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("sub", userId);
-        claims.put("username", username);
-        claims.put("type", "refresh");
-        
-        return Jwts.builder()
-                .setClaims(claims)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
-                .signWith(getSecretKey(), SignatureAlgorithm.HS512)
-                .compact();
+        return generateToken(userId, username, VerifiedToken.TYPE_REFRESH, refreshExpiration);
     }
 
     /**
-     * 从Token中获取用户ID
+     * 签发Token：HMAC签名走快速签发器，其他算法走jjwt构建器，两者输出格式一致
      */
-    public Long getUserIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return Long.parseLong(claims.getSubject());
-    }
+    private String generateToken(Long userId, String username, String type, long lifetime) {
+        long now = System.currentTimeMillis();
+        HmacTokenSigner signer = getHmacSigner();
+        if (signer != null) {
+            return signer.sign(userId, username, type, newTokenId(), now, now + lifetime);
+        }
 
-    /**
-     * 从Token中获取用户名
-     */
-    public String getUsernameFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return (String) claims.get("username");
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", userId);
+        claims.put("username", username);
+        claims.put("type", type);
+        claims.put(VerifiedToken.CLAIM_ISSUED_AT_MILLIS, now);
+
+        return sign(Jwts.builder()
+                .setClaims(claims)
+                .setId(newTokenId())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + lifetime)));
     }
 
     /**
-     * 验证Token是否有效
+     * 验签并解析Token，只解析一次
+     * @return 已验签的Token视图，Token无效或已过期时返回null
      */
-    public boolean validateToken(String token) {
+    public VerifiedToken verify(String token) {
         try {
             Claims claims = getClaimsFromToken(token);
-            return !claims.getExpiration().before(new Date());
+            if (claims.getExpiration().before(new Date())) {
+                return null;
+            }
+            // 新Token使用jti作为标识；兼容未携带jti的存量Token，使用Token摘要作为标识
+            String tokenId = claims.getId() != null ? claims.getId() : digest(token);
+            return VerifiedToken.fromClaims(tokenId, claims);
         } catch (Exception e) {
-            return false;
+            return null;
         }
     }
 
@@ -110,12 +137,32 @@ public class JwtUtils {
      * 获取Token中的Claims
      */
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSecretKey())
+        return getParser()
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    /**
+     * 生成Token标识（jti）
+     */
+    private static String newTokenId() {
+        byte[] bytes = new byte[TOKEN_ID_BYTES];
+        TOKEN_ID_RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * 计算Token摘要（SHA-256前128位，Base64URL编码），用作缓存等服务端结构的短键
+     */
+    public static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
     /**
      * 获取Token过期时间（毫秒）
      */
@@ -0,0 +1,307 @@
+package com.logindemo.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射文件的本地追加式缓冲（spool）
+ * 数据按固定大小的段文件（spool-{序号}.dat）顺序追加，每条记录的帧格式为 [长度 int][CRC32 int][内容]：
+ * 先写内容和CRC，最后写长度，长度为0表示尚未写入（文件预分配时全为0），因此进程在写入中途退出时
+ * 半条记录不会被读到；CRC不一致的记录视为损坏并跳过该段剩余部分。
+ * 消费进度（段序号、段内偏移）保存在checkpoint文件中，commit后删除已全部消费的段。
+ * 消费是至少一次语义：commit之前进程退出，重启后会重新读到已处理的记录
+ */
+public class MappedSpool implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "spool-";
+
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final int FRAME_HEADER = 8;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    /**
+     * 段序号 -> 映射缓冲
+     */
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+    private long writeSegment;
+
+    private int writeOffset;
+
+    private long readSegment;
+
+    private int readOffset;
+
+    /**
+     * 跳过的损坏记录数
+     */
+    private long corruptedRecords;
+
+    public MappedSpool(Path directory, int segmentSize, int maxSegments) throws IOException {
+        if (segmentSize <= FRAME_HEADER) {
+            throw new IllegalArgumentException("段大小过小: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * 追加一条记录
+     * @return 是否写入成功，记录超过段大小或段数达到上限时返回false
+     */
+    public synchronized boolean append(byte[] payload) throws IOException {
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("记录内容不能为空");
+        }
+        int frameLength = FRAME_HEADER + payload.length;
+        if (frameLength > segmentSize) {
+            return false;
+        }
+        if (writeOffset + frameLength > segmentSize) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            // 写入结束标记，避免读取到段尾残留的旧数据
+            if (writeOffset + 4 <= segmentSize) {
+                segments.get(writeSegment).putInt(writeOffset, 0);
+            }
+            writeSegment++;
+            writeOffset = 0;
+            segments.put(writeSegment, map(writeSegment));
+        }
+        MappedByteBuffer buffer = segments.get(writeSegment);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.put(writeOffset + FRAME_HEADER, payload);
+        buffer.putInt(writeOffset + 4, (int) crc.getValue());
+        buffer.putInt(writeOffset, payload.length);
+        writeOffset += frameLength;
+        return true;
+    }
+
+    /**
+     * 从消费进度开始读取最多maxRecords条记录，不移动消费进度
+     */
+    public synchronized Batch peek(int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        long segment = readSegment;
+        int offset = readOffset;
+        while (records.size() < maxRecords) {
+            if (segment == writeSegment && offset >= writeOffset) {
+                break;
+            }
+            MappedByteBuffer buffer = segments.get(segment);
+            int length = frameLength(buffer, offset);
+            if (length > 0) {
+                byte[] payload = readFrame(buffer, offset, length);
+                if (payload != null) {
+                    records.add(payload);
+                    offset += FRAME_HEADER + length;
+                    continue;
+                }
+            }
+            if (length != 0) {
+                corruptedRecords++;
+            }
+            // 当前段已读完或剩余部分损坏：写入段跳到当前写入位置，之前的段继续读下一段
+            if (segment == writeSegment) {
+                offset = writeOffset;
+                break;
+            }
+            segment = segments.higherKey(segment);
+            offset = 0;
+        }
+        return new Batch(records, segment, offset);
+    }
+
+    /**
+     * 提交消费进度并删除已全部消费的段
+     */
+    public synchronized void commit(Batch batch) throws IOException {
+        readSegment = batch.segment;
+        readOffset = batch.offset;
+        writeCheckpoint();
+        while (!segments.isEmpty() && segments.firstKey() < readSegment) {
+            long segment = segments.pollFirstEntry().getKey();
+            Files.deleteIfExists(segmentPath(segment));
+        }
+    }
+
+    /**
+     * 是否还有未消费的记录
+     */
+    public synchronized boolean isEmpty() {
+        return readSegment == writeSegment && readOffset >= writeOffset;
+    }
+
+    /**
+     * 未消费的字节数（估算）
+     */
+    public synchronized long pendingBytes() {
+        return (writeSegment - readSegment) * (long) segmentSize + writeOffset - readOffset;
+    }
+
+    public synchronized long getCorruptedRecords() {
+        return corruptedRecords;
+    }
+
+    /**
+     * 将映射内容刷到磁盘
+     */
+    public synchronized void force() {
+        for (MappedByteBuffer buffer : segments.values()) {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    /**
+     * 启动时加载已有的段和消费进度，扫描最后一段确定写入位置
+     */
+    private void recover() throws IOException {
+        List<Long> existing = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                existing.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(existing);
+        readCheckpoint();
+        for (Long segment : existing) {
+            if (segment < readSegment) {
+                Files.deleteIfExists(segmentPath(segment));
+            } else {
+                segments.put(segment, map(segment));
+            }
+        }
+        if (segments.isEmpty()) {
+            readOffset = 0;
+            writeSegment = readSegment;
+            writeOffset = 0;
+            segments.put(writeSegment, map(writeSegment));
+            return;
+        }
+        if (!segments.containsKey(readSegment)) {
+            readSegment = segments.firstKey();
+            readOffset = 0;
+        }
+        writeSegment = segments.lastKey();
+        MappedByteBuffer buffer = segments.get(writeSegment);
+        int offset = 0;
+        int length;
+        while ((length = frameLength(buffer, offset)) > 0 && readFrame(buffer, offset, length) != null) {
+            offset += FRAME_HEADER + length;
+        }
+        writeOffset = offset;
+        if (readSegment == writeSegment && readOffset > writeOffset) {
+            readOffset = writeOffset;
+        }
+    }
+
+    /**
+     * 读取帧长度，没有更多记录时返回0
+     */
+    private int frameLength(ByteBuffer buffer, int offset) {
+        if (offset + FRAME_HEADER > segmentSize) {
+            return 0;
+        }
+        int length = buffer.getInt(offset);
+        if (length < 0 || offset + FRAME_HEADER + (long) length > segmentSize) {
+            return -1;
+        }
+        return length;
+    }
+
+    /**
+     * 读取帧内容并校验CRC，校验失败返回null
+     */
+    private static byte[] readFrame(ByteBuffer buffer, int offset, int length) {
+        byte[] payload = new byte[length];
+        buffer.get(offset + FRAME_HEADER, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(offset + 4) ? payload : null;
+    }
+
+    private MappedByteBuffer map(long segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private void readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() == 12) {
+            readSegment = buffer.getLong();
+            readOffset = buffer.getInt();
+        }
+    }
+
+    /**
+     * 先写临时文件再原子替换，避免checkpoint写入一半
+     */
+    private void writeCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putLong(readSegment).putInt(readOffset);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 一次读取的记录及读取结束位置
+     */
+    public static final class Batch {
+        private final List<byte[]> records;
+        private final long segment;
+        private final int offset;
+
+        Batch(List<byte[]> records, long segment, int offset) {
+            this.records = records;
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        public List<byte[]> getRecords() {
+            return records;
+        }
+    }
+}
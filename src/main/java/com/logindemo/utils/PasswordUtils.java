@@ -1,31 +1,246 @@
 package com.logindemo.utils;
 
+import com.logindemo.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
 /**
  * 密码工具类
+ * BCrypt计算在专用线程池中执行，线程数按CPU核数配置，等待队列有界：
+ * 队列满时立即拒绝（429），登录高峰期最多只有"线程数 + 队列容量"个请求线程在等待哈希，
+ * 其余接口（/users、/menus等）不会因为Tomcat线程被BCrypt占满而不可用
+ * 新密码哈希带算法前缀（如{bcrypt}$2a$12$...），算法和代价参数可配置；
+ * 存量无前缀的BCrypt哈希仍可验证，登录成功后由调用方通过needsUpgrade判断是否需要重新哈希
  */
 @Component
 public class PasswordUtils {
 
-    private final BCryptPasswordEncoder passwordEncoder;
+    private static final Logger logger = LoggerFactory.getLogger(PasswordUtils.class);
+
+    /**
+     * 无算法前缀的存量BCrypt哈希
+     */
+    private static final Pattern LEGACY_BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$.{53}$");
 
-    public PasswordUtils() {
-        this.passwordEncoder = new BCryptPasswordEncoder();
+    private final DelegatingPasswordEncoder passwordEncoder;
+
+    /**
+     * 委托编码器中已注册的算法前缀（不含花括号）
+     */
+    private final Set<String> encoderIds;
+
+    /**
+     * 启动时预先计算的哈希，用于不存在的用户名走一次同等代价的验证，使响应耗时与密码错误一致
+     */
+    private final String dummyHash;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 等待哈希结果的最长时间（毫秒）
+     */
+    private final long timeoutMillis;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter rejectedCounter;
+
+    public PasswordUtils(@Value("${password-hash.algorithm:bcrypt}") String algorithm,
+                         @Value("${password-hash.bcrypt-strength:10}") int bcryptStrength,
+                         @Value("${password-hash.pool-size:0}") int poolSize,
+                         @Value("${password-hash.queue-capacity:64}") int queueCapacity,
+                         @Value("${password-hash.timeout:5000}") long timeoutMillis,
+                         MeterRegistry meterRegistry) {
+        Map<String, PasswordEncoder> encoders = createEncoders(bcryptStrength);
+        this.encoderIds = Set.copyOf(encoders.keySet());
+        this.passwordEncoder = createEncoder(algorithm, encoders);
+        this.dummyHash = passwordEncoder.encode(Long.toHexString(Double.doubleToLongBits(Math.random())));
+        this.timeoutMillis = timeoutMillis;
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("等待执行的密码哈希任务数")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的密码哈希任务数")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hash.latency")
+                .description("密码哈希计算耗时（不含排队）")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hash.latency")
+                .description("密码哈希计算耗时（不含排队）")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("因队列已满被拒绝的密码哈希任务数")
+                .register(meterRegistry);
+        logger.info("密码哈希线程池已初始化，算法: {}, BCrypt强度: {}, 线程数: {}, 队列容量: {}",
+                algorithm, bcryptStrength, threads, queueCapacity);
+    }
+
+    /**
+     * 支持的算法前缀及对应的编码器
+     */
+    private static Map<String, PasswordEncoder> createEncoders(int bcryptStrength) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+        return encoders;
+    }
+
+    /**
+     * 创建带算法前缀的委托编码器，algorithm指定新哈希使用的算法
+     */
+    private static DelegatingPasswordEncoder createEncoder(String algorithm, Map<String, PasswordEncoder> encoders) {
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("不支持的密码哈希算法: " + algorithm + "，可选值: " + encoders.keySet());
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // 存量哈希没有算法前缀，均为默认强度的BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return encoder;
     }
 
     /**
      * 加密密码
      */
     public String encode(String password) {
-        return passwordEncoder.encode(password);
+        return execute(() -> encodeTimer.record(() -> passwordEncoder.encode(password)));
     }
 
     /**
-     * 验证密码
+     * 验证密码，存储值带未注册的算法前缀时视为不匹配
      */
     public boolean matches(String rawPassword, String encodedPassword) {
-        return passwordEncoder.matches(rawPassword, encodedPassword);
+        return execute(() -> matchesTimer.record(() -> {
+            try {
+                return passwordEncoder.matches(rawPassword, encodedPassword);
+            } catch (IllegalArgumentException e) {
+                logger.warn("无法识别的密码哈希前缀，按密码错误处理");
+                return false;
+            }
+        }));
+    }
+
+    /**
+     * 对预先计算的哈希做一次验证，结果丢弃（用户不存在时调用，均衡响应耗时）
+     */
+    public void matchesDummy(String rawPassword) {
+        matches(rawPassword == null ? "" : rawPassword, dummyHash);
+    }
+
+    /**
+     * 判断是否已是哈希值（带已注册的算法前缀，或存量无前缀BCrypt哈希）
+     * 前缀不在编码器中的值（如{foo}secret）视为明文，需要加密后再保存
+     */
+    public boolean isEncoded(String password) {
+        if (password == null) {
+            return false;
+        }
+        if (password.startsWith("{")) {
+            int end = password.indexOf('}');
+            return end > 1 && end < password.length() - 1 && encoderIds.contains(password.substring(1, end));
+        }
+        return LEGACY_BCRYPT_PATTERN.matcher(password).matches();
+    }
+
+    /**
+     * 判断哈希是否需要按当前算法和代价参数重新生成（无前缀、算法不同或代价低于当前配置）
+     */
+    public boolean needsUpgrade(String encodedPassword) {
+        try {
+            return passwordEncoder.upgradeEncoding(encodedPassword);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 异步加密密码（用于哈希升级等不阻塞请求的场景）
+     * 队列已满时返回失败的Future，调用方可直接放弃，下次再试
+     */
+    public CompletableFuture<String> encodeAsync(String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> encodeTimer.record(() -> passwordEncoder.encode(password)), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            CompletableFuture<String> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    /**
+     * 提交到哈希线程池并等待结果
+     */
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            logger.warn("密码哈希队列已满，拒绝请求，队列长度: {}", executor.getQueue().size());
+            throw new BusinessException(429, "请求过于频繁，请稍后重试");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("密码哈希等待超时，超时时间: {}ms", timeoutMillis);
+            throw new BusinessException(503, "服务繁忙，请稍后重试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(503, "服务繁忙，请稍后重试");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("密码哈希计算失败", cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
     }
-}
\ No newline at end of file
+}
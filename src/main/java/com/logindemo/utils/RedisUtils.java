@@ -4,8 +4,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -16,6 +30,13 @@ public class RedisUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisUtils.class);
 
+    /**
+     * 释放分布式锁脚本：只有持有者才能删除
+     */
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
@@ -70,6 +91,81 @@ public class RedisUtils {
         }
     }
 
+    /**
+     * 批量判断键是否存在（管道方式，一次往返）
+     * @return 与keys顺序一致的结果列表
+     */
+    public List<Boolean> hasKeys(List<String> keys) {
+        List<Boolean> result = new ArrayList<>(keys.size());
+        if (keys.isEmpty()) {
+            return result;
+        }
+        try {
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    connection.keyCommands().exists(key.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            for (Object reply : replies) {
+                result.add(Boolean.TRUE.equals(reply));
+            }
+        } catch (RedisConnectionFailureException e) {
+            logger.error("Redis批量判断键是否存在失败，keys: {}, error: {}", keys.size(), e.getMessage(), e);
+            // Redis不可用时，默认返回false（假设键不存在）
+            result.clear();
+            keys.forEach(key -> result.add(false));
+        }
+        return result;
+    }
+
+    /**
+     * 获取分布式锁（SET NX PX）
+     * @param owner 持有者标识，释放时校验
+     * @return 是否获取成功，Redis不可用时返回null
+     */
+    public Boolean tryLock(String key, String owner, long ttlMillis) {
+        try {
+            Boolean locked = redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.stringCommands().set(key.getBytes(StandardCharsets.UTF_8),
+                            owner.getBytes(StandardCharsets.UTF_8),
+                            Expiration.milliseconds(ttlMillis),
+                            RedisStringCommands.SetOption.SET_IF_ABSENT));
+            return Boolean.TRUE.equals(locked);
+        } catch (RedisConnectionFailureException e) {
+            logger.error("Redis获取锁失败，key: {}, error: {}", key, e.getMessage(), e);
+            // Redis不可用时，返回null，由调用方决定是否降级执行
+            return null;
+        }
+    }
+
+    /**
+     * 释放分布式锁（仅当仍由owner持有时）
+     */
+    public void unlock(String key, String owner) {
+        executeScript(UNLOCK_SCRIPT, Collections.singletonList(key), owner);
+    }
+
+    /**
+     * 执行Lua脚本（参数与结果使用字符串序列化，脚本中可直接做数值运算）
+     * @return 脚本返回值，Redis不可用时返回null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> T executeScript(RedisScript<T> script, List<String> keys, Object... args) {
+        try {
+            RedisSerializer serializer = StringRedisSerializer.UTF_8;
+            Object[] stringArgs = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                stringArgs[i] = String.valueOf(args[i]);
+            }
+            return (T) redisTemplate.execute(script, serializer, serializer, keys, stringArgs);
+        } catch (RedisConnectionFailureException e) {
+            logger.error("Redis执行脚本失败，keys: {}, error: {}", keys, e.getMessage(), e);
+            // Redis不可用时，返回null
+            return null;
+        }
+    }
+
     /**
      * 递增
      */
@@ -129,4 +225,101 @@ public class RedisUtils {
             return -1L;
         }
     }
+
+    /**
+     * 向有序集合添加成员
+     */
+    public boolean zAdd(String key, Object member, double score) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForZSet().add(key, member, score));
+        } catch (RedisConnectionFailureException e) {
+            logger.error("Redis有序集合添加失败，key: {}, error: {}", key, e.getMessage(), e);
+            // Redis不可用时，返回false
+            return false;
+        }
+    }
+
+    /**
+     * 按分数区间查询有序集合成员及分数
+     */
+    public Set<ZSetOperations.TypedTuple<Object>> zRangeByScoreWithScores(String key, double min, double max) {
+        try {
+            Set<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet().rangeByScoreWithScores(key, min, max);
+            return tuples == null ? Collections.emptySet() : tuples;
+        } catch (RedisConnectionFailureException e) {
+            logger.error("Redis有序集合查询失败，key: {}, error: {}", key, e.getMessage(), e);
+            // Redis不可用时，返回空集合
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 按分数区间删除有序集合成员
+     */
+    public Long zRemoveRangeByScore(String key, double min, double max) {
+        try {
+            return redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+        } catch (RedisConnectionFailureException e) {
+            logger.error("Redis有序集合删除失败，key: {}, error: {}", key, e.getMessage(), e);
+            // Redis不可用时，返回0
+            return 0L;
+        }
+    }
+
+    /**
+     * 发布消息
+     */
+    public void publish(String channel, Object message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (RedisConnectionFailureException e) {
+            logger.error("Redis发布消息失败，channel: {}, error: {}", channel, e.getMessage(), e);
+            // Redis不可用时，忽略操作继续执行
+        }
+    }
+
+    /**
+     * 反序列化订阅收到的消息体
+     */
+    public Object deserializeMessage(byte[] body) {
+        return redisTemplate.getValueSerializer().deserialize(body);
+    }
+
+    /**
+     * 设置哈希字段
+     */
+    public void hSet(String key, String field, Object value) {
+        try {
+            redisTemplate.opsForHash().put(key, field, value);
+        } catch (RedisConnectionFailureException e) {
+            logger.error("Redis设置哈希字段失败，key: {}, field: {}, error: {}", key, field, e.getMessage(), e);
+            // Redis不可用时，忽略操作继续执行
+        }
+    }
+
+    /**
+     * 获取哈希全部字段
+     */
+    public Map<Object, Object> hGetAll(String key) {
+        try {
+            return redisTemplate.opsForHash().entries(key);
+        } catch (RedisConnectionFailureException e) {
+            logger.error("Redis获取哈希失败，key: {}, error: {}", key, e.getMessage(), e);
+            // Redis不可用时，返回空Map
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 删除哈希字段
+     */
+    public Long hDelete(String key, Object... fields) {
+        try {
+            return redisTemplate.opsForHash().delete(key, fields);
+        } catch (RedisConnectionFailureException e) {
+            logger.error("Redis删除哈希字段失败，key: {}, error: {}", key, e.getMessage(), e);
+            // Redis不可用时，返回0
+            return 0L;
+        }
+    }
 }
\ No newline at end of file
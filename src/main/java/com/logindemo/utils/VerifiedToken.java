@@ -0,0 +1,107 @@
+package com.logindemo.utils;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * 已验签的Token视图（不可变）
+ * 由JwtUtils.verify一次解析得到，调用方无需再次解析Token
+ */
+public final class VerifiedToken {
+
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    /**
+     * 毫秒精度的签发时间声明；标准iat只精确到秒，不足以判断Token签发在用户吊销纪元之前还是之后
+     */
+    static final String CLAIM_ISSUED_AT_MILLIS = "iat_ms";
+
+    private final String tokenId;
+    private final Long userId;
+    private final String username;
+    private final String type;
+    private final long issuedAt;
+    private final long expiresAt;
+
+    public VerifiedToken(String tokenId, Long userId, String username, String type, long issuedAt, long expiresAt) {
+        this.tokenId = tokenId;
+        this.userId = userId;
+        this.username = username;
+        this.type = type;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    static VerifiedToken fromClaims(String tokenId, Claims claims) {
+        return new VerifiedToken(
+                tokenId,
+                Long.parseLong(claims.getSubject()),
+                claims.get("username", String.class),
+                claims.get("type", String.class),
+                issuedAtMillis(claims),
+                claims.getExpiration().getTime());
+    }
+
+    /**
+     * 优先取毫秒精度的签发时间，未携带该声明的存量Token退回到iat（秒）
+     */
+    private static long issuedAtMillis(Claims claims) {
+        Object issuedAtMillis = claims.get(CLAIM_ISSUED_AT_MILLIS);
+        if (issuedAtMillis instanceof Number) {
+            return ((Number) issuedAtMillis).longValue();
+        }
+        return claims.getIssuedAt() == null ? 0L : claims.getIssuedAt().getTime();
+    }
+
+    /**
+     * Token标识，用于吊销索引等服务端结构
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * 签发时间（毫秒时间戳）
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isAccessToken() {
+        return TYPE_ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type);
+    }
+
+    public boolean isExpired() {
+        return expiresAt <= System.currentTimeMillis();
+    }
+
+    /**
+     * 剩余有效时间（秒），已过期时返回0
+     */
+    public long getRemainingSeconds() {
+        return Math.max(0L, (expiresAt - System.currentTimeMillis()) / 1000);
+    }
+}
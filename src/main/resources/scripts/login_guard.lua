@@ -0,0 +1,50 @@
+-- 登录防护脚本：锁定检查、失败计数、验证码阈值判断与锁定升级在一次调用中原子完成
+-- KEYS[1] 登录失败次数Key, KEYS[2] 账户锁定Key
+-- ARGV[1] 模式：CHECK（登录前检查）, FAIL（记录失败）, RESET（登录成功清除失败记录）
+-- ARGV[2] 失败计数窗口（秒）, ARGV[3] 验证码阈值, ARGV[4] 最大失败次数, ARGV[5] 锁定时长（秒）
+-- 返回 {状态, 失败次数, 锁定剩余秒数}，状态：0 正常, 1 需要验证码, 2 已锁定, 3 本次失败触发锁定
+
+local attemptKey = KEYS[1]
+local lockKey = KEYS[2]
+local mode = ARGV[1]
+
+if mode == 'RESET' then
+    redis.call('DEL', attemptKey)
+    return {0, 0, 0}
+end
+
+local window = tonumber(ARGV[2])
+local captchaThreshold = tonumber(ARGV[3])
+local maxAttempts = tonumber(ARGV[4])
+local lockDuration = tonumber(ARGV[5])
+
+local lockTtl = redis.call('TTL', lockKey)
+if lockTtl == -1 then
+    -- 锁定Key没有过期时间（异常写入），按配置的锁定时长重新设置，避免永久锁定
+    redis.call('EXPIRE', lockKey, lockDuration)
+    lockTtl = lockDuration
+end
+if lockTtl > 0 then
+    return {2, 0, lockTtl}
+end
+
+local attempts
+if mode == 'FAIL' then
+    attempts = redis.call('INCR', attemptKey)
+    if redis.call('TTL', attemptKey) < 0 then
+        redis.call('EXPIRE', attemptKey, window)
+    end
+    if attempts >= maxAttempts then
+        -- 值按JSON字符串写入，与RedisTemplate的值序列化方式一致
+        redis.call('SET', lockKey, '"locked"', 'EX', lockDuration)
+        redis.call('DEL', attemptKey)
+        return {3, attempts, lockDuration}
+    end
+else
+    attempts = tonumber(redis.call('GET', attemptKey) or '0') or 0
+end
+
+if attempts >= captchaThreshold then
+    return {1, attempts, 0}
+end
+return {0, attempts, 0}
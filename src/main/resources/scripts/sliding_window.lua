@@ -0,0 +1,28 @@
+-- 滑动窗口限流脚本：多个维度（如IP、用户名）同时检查，全部未超限时才计入本次请求
+-- KEYS[i] 各维度的有序集合Key
+-- ARGV[1] 当前时间（毫秒）, ARGV[2] 窗口长度（毫秒）, ARGV[3] 本次请求的唯一成员
+-- ARGV[3 + i] KEYS[i]对应的窗口内最大请求数
+-- 返回 {0, 0} 表示放行；{i, 重试等待毫秒数} 表示第i个维度超限
+
+local now = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local member = ARGV[3]
+
+for i, key in ipairs(KEYS) do
+    redis.call('ZREMRANGEBYSCORE', key, '-inf', now - window)
+    local limit = tonumber(ARGV[3 + i])
+    if redis.call('ZCARD', key) >= limit then
+        local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+        local retryAfter = window
+        if oldest[2] then
+            retryAfter = tonumber(oldest[2]) + window - now
+        end
+        return {i, retryAfter}
+    end
+end
+
+for _, key in ipairs(KEYS) do
+    redis.call('ZADD', key, now, member)
+    redis.call('PEXPIRE', key, window)
+end
+return {0, 0}
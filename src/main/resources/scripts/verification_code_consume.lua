@@ -0,0 +1,17 @@
+-- 校验并消费验证码：匹配则删除（只能成功使用一次），不匹配则累计失败次数，达到上限后作废
+-- KEYS[1] 验证码Key
+-- ARGV[1] 用户输入的验证码, ARGV[2] 最大失败次数
+-- 返回 0 不存在或已过期, 1 校验通过, 2 验证码错误
+
+local stored = redis.call('HGET', KEYS[1], 'code')
+if not stored then
+    return 0
+end
+if stored == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+    return 1
+end
+if redis.call('HINCRBY', KEYS[1], 'fails', 1) >= tonumber(ARGV[2]) then
+    redis.call('DEL', KEYS[1])
+end
+return 2
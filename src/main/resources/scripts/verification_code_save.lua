@@ -0,0 +1,12 @@
+-- 保存验证码：重发间隔内拒绝，否则覆盖旧验证码并重置失败次数
+-- KEYS[1] 验证码Key, KEYS[2] 重发限制Key
+-- ARGV[1] 验证码, ARGV[2] 有效期（秒）, ARGV[3] 重发间隔（秒）
+-- 返回 1 保存成功, 0 重发间隔内
+
+if not redis.call('SET', KEYS[2], '1', 'NX', 'EX', tonumber(ARGV[3])) then
+    return 0
+end
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], 'code', ARGV[1], 'fails', 0)
+redis.call('EXPIRE', KEYS[1], tonumber(ARGV[2]))
+return 1
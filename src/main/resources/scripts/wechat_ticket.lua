@@ -0,0 +1,54 @@
+-- 微信登录票据状态脚本，KEYS[1] 票据哈希Key
+-- ARGV[1] 模式：
+--   REGISTER   ARGV[2] 创建时间, ARGV[3] 过期时间, ARGV[4] Key保留时长（毫秒），成功返回1，票据已存在返回0
+--   GET        返回 {状态, 创建时间, 过期时间}，票据不存在时返回空
+--   TRANSITION ARGV[2] 目标状态, ARGV[3] 认证响应JSON（可为空串）, ARGV[4..] 允许的当前状态，迁移成功返回1，否则返回0
+--   TAKE_AUTH  取出并删除待交付的认证响应（只有一个调用方能取到），没有时返回空
+
+local key = KEYS[1]
+local mode = ARGV[1]
+
+if mode == 'REGISTER' then
+    if redis.call('EXISTS', key) == 1 then
+        return 0
+    end
+    redis.call('HSET', key, 'status', 'waiting', 'createdAt', ARGV[2], 'expiresAt', ARGV[3])
+    redis.call('PEXPIRE', key, tonumber(ARGV[4]))
+    return 1
+end
+
+if mode == 'GET' then
+    local values = redis.call('HMGET', key, 'status', 'createdAt', 'expiresAt')
+    if not values[1] then
+        return {}
+    end
+    return values
+end
+
+if mode == 'TRANSITION' then
+    local current = redis.call('HGET', key, 'status')
+    if not current then
+        return 0
+    end
+    for i = 4, #ARGV do
+        if current == ARGV[i] then
+            redis.call('HSET', key, 'status', ARGV[2])
+            if ARGV[3] ~= '' then
+                redis.call('HSET', key, 'auth', ARGV[3])
+            end
+            return 1
+        end
+    end
+    return 0
+end
+
+if mode == 'TAKE_AUTH' then
+    local auth = redis.call('HGET', key, 'auth')
+    if auth then
+        redis.call('HDEL', key, 'auth')
+        return auth
+    end
+    return false
+end
+
+return redis.error_reply('unknown mode: ' .. tostring(mode))
@@ -0,0 +1,25 @@
+package com.logindemo.benchmark;
+
+import com.logindemo.utils.JwtKeyring;
+import com.logindemo.utils.JwtUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 基准测试公共方法：脱离Spring容器构造被测组件
+ */
+final class BenchmarkSupport {
+
+    static final String SECRET =
+            "benchmark-secret-key-must-be-at-least-64-chars-long-for-hs512-algorithm-security-0123456789";
+
+    private BenchmarkSupport() {
+    }
+
+    static JwtUtils newJwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "keyring", new JwtKeyring(SECRET));
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 3600000L);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpiration", 86400000L);
+        return jwtUtils;
+    }
+}
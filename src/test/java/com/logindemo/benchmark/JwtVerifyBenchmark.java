@@ -0,0 +1,86 @@
+package com.logindemo.benchmark;
+
+import com.logindemo.utils.JwtUtils;
+import com.logindemo.utils.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT验证基准测试
+ * 对比过滤器原有的validateToken + getUserIdFromToken（两次验签解析，已从JwtUtils移除，此处按原实现内联）
+ * 与verify（一次验签解析）的单请求耗时
+ * 运行方式：在IDE中执行main方法，或 mvn test-compile 后以测试classpath运行本类
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private JwtUtils jwtUtils;
+
+    private JwtParser parser;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = BenchmarkSupport.newJwtUtils();
+        parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(BenchmarkSupport.SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        token = jwtUtils.generateAccessToken(10001L, "benchmark_user");
+    }
+
+    /**
+     * 原有方式：先验证，再取用户ID，共解析两次
+     */
+    @Benchmark
+    public void validateThenParse(Blackhole blackhole) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (!claims.getExpiration().before(new Date())) {
+            blackhole.consume(Long.parseLong(parser.parseClaimsJws(token).getBody().getSubject()));
+        }
+    }
+
+    /**
+     * 新方式：一次验签解析，得到可复用的Token视图
+     */
+    @Benchmark
+    public void verifyOnce(Blackhole blackhole) {
+        VerifiedToken verifiedToken = jwtUtils.verify(token);
+        if (verifiedToken != null) {
+            blackhole.consume(verifiedToken.getUserId());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerifyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.logindemo.test;
+
+import com.logindemo.mapper.AuditLogMapper;
+import com.logindemo.model.AuditLog;
+import com.logindemo.task.AuditLogBatchInserter;
+import com.logindemo.task.AuditLogRollup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 审计日志批量插入测试类
+ * 校验数据错误只丢弃出错的行、暂时性错误整批返回重试，以及按列宽截断
+ */
+public class AuditLogBatchInserterTest {
+
+    private final AuditLogMapper auditLogMapper = mock(AuditLogMapper.class);
+
+    private final AuditLogBatchInserter inserter =
+            new AuditLogBatchInserter(auditLogMapper, mock(AuditLogRollup.class), new SimpleMeterRegistry());
+
+    /**
+     * 批次中的坏行只影响自身，其余行全部写入
+     */
+    @Test
+    public void testDataErrorDeadLettersOnlyBadRows() {
+        List<AuditLog> batch = logs(10);
+        batch.get(3).setOperationType(null);
+        batch.get(8).setOperationType(null);
+        List<AuditLog> inserted = new ArrayList<>();
+        when(auditLogMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<AuditLog> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getOperationType() == null)) {
+                throw new DataIntegrityViolationException("Column 'operation_type' cannot be null");
+            }
+            inserted.addAll(rows);
+            return rows.size();
+        });
+
+        AuditLogBatchInserter.Result result = inserter.insert(batch);
+
+        assertEquals(8, result.getWritten().size());
+        assertEquals(8, inserted.size());
+        assertEquals(2, result.getDeadLettered());
+        assertTrue(result.getPending().isEmpty());
+    }
+
+    /**
+     * 暂时性错误不拆批，整批返回给调用方重试
+     */
+    @Test
+    public void testTransientErrorReturnsPending() {
+        List<AuditLog> batch = logs(10);
+        when(auditLogMapper.insertBatch(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Communications link failure"));
+
+        AuditLogBatchInserter.Result result = inserter.insert(batch);
+
+        assertEquals(10, result.getPending().size());
+        assertEquals(0, result.getDeadLettered());
+        assertTrue(result.getWritten().isEmpty());
+    }
+
+    /**
+     * 超长字段按列宽截断，不拆开代理对；创建时间截断到秒，与DATETIME列中的值一致
+     */
+    @Test
+    public void testTruncatesToColumnWidths() {
+        AuditLog auditLog = logs(1).get(0);
+        auditLog.setIpAddress("1.2.3.4, ".repeat(20));
+        auditLog.setUserAgent("😀".repeat(600));
+        auditLog.setCreatedAt(LocalDateTime.of(2026, 10, 17, 10, 59, 59, 600_000_000));
+        when(auditLogMapper.insertBatch(anyList())).thenReturn(1);
+
+        inserter.insert(List.of(auditLog));
+
+        assertEquals(50, auditLog.getIpAddress().length());
+        assertEquals(500, auditLog.getUserAgent().codePointCount(0, auditLog.getUserAgent().length()));
+        assertEquals(LocalDateTime.of(2026, 10, 17, 10, 59, 59), auditLog.getCreatedAt());
+    }
+
+    private static List<AuditLog> logs(int count) {
+        List<AuditLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AuditLog auditLog = new AuditLog();
+            auditLog.setUsername("user" + i);
+            auditLog.setOperationType("LOGIN");
+            auditLog.setStatus("SUCCESS");
+            auditLog.setCreatedAt(LocalDateTime.now());
+            logs.add(auditLog);
+        }
+        return logs;
+    }
+}
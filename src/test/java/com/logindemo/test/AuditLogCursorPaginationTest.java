@@ -0,0 +1,114 @@
+package com.logindemo.test;
+
+import com.logindemo.exception.BusinessException;
+import com.logindemo.mapper.AuditLogMapper;
+import com.logindemo.model.AuditLog;
+import com.logindemo.model.dto.AuditLogPage;
+import com.logindemo.service.impl.AuditLogServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 审计日志游标分页测试类
+ * 校验游标编码往返、按pageSize + 1判断是否有下一页，以及无效游标返回400
+ */
+public class AuditLogCursorPaginationTest {
+
+    private final AuditLogMapper auditLogMapper = mock(AuditLogMapper.class);
+
+    private final AuditLogServiceImpl auditLogService = new AuditLogServiceImpl();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(auditLogService, "auditLogMapper", auditLogMapper);
+        ReflectionTestUtils.setField(auditLogService, "maxOffset", 10000);
+    }
+
+    /**
+     * 秒为0的创建时间（LocalDateTime.toString省略":00"）经游标往返后不变
+     */
+    @Test
+    public void testCursorRoundTripWithZeroSeconds() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 10, 17, 10, 30, 0);
+        List<AuditLog> firstPage = logs(11, createdAt);
+        when(auditLogMapper.selectAuditLogs(any(), any(), any(), any(), any(), any(), eq(0), eq(11)))
+                .thenReturn(firstPage);
+
+        AuditLogPage page = auditLogService.queryAuditLogs(null, null, null, null, null, null, 1, 10, null);
+        auditLogService.queryAuditLogs(null, null, null, null, null, null, null, 10, page.getNextCursor());
+
+        AuditLog last = firstPage.get(9);
+        verify(auditLogMapper).selectAuditLogsAfter(any(), any(), any(), any(), any(), any(),
+                eq(createdAt), eq(last.getId()), eq(11));
+    }
+
+    /**
+     * 多取的一条只用于判断是否有下一页，不返回给调用方
+     */
+    @Test
+    public void testHasMoreAtPageSizePlusOne() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 10, 17, 10, 30, 15);
+        when(auditLogMapper.selectAuditLogs(any(), any(), any(), any(), any(), any(), anyInt(), eq(11)))
+                .thenReturn(logs(11, createdAt), logs(10, createdAt));
+
+        AuditLogPage full = auditLogService.queryAuditLogs(null, null, null, null, null, null, 1, 10, null);
+        assertTrue(full.isHasMore());
+        assertEquals(10, full.getList().size());
+        assertEquals(encode(createdAt + "|" + full.getList().get(9).getId()), full.getNextCursor());
+
+        AuditLogPage last = auditLogService.queryAuditLogs(null, null, null, null, null, null, 2, 10, null);
+        assertFalse(last.isHasMore());
+        assertEquals(10, last.getList().size());
+        assertNull(last.getNextCursor());
+    }
+
+    /**
+     * 无法解码、缺少分隔符或字段无法解析的游标返回400
+     */
+    @Test
+    public void testMalformedCursorRejected() {
+        for (String cursor : new String[]{"not*base64", encode("2026-10-17T10:30"), encode("2026-10-17T10:30|abc"),
+                encode("yesterday|42")}) {
+            BusinessException e = assertThrows(BusinessException.class, () ->
+                    auditLogService.queryAuditLogs(null, null, null, null, null, null, null, 10, cursor));
+            assertEquals(400, e.getCode());
+        }
+    }
+
+    /**
+     * 按创建时间和ID倒序生成审计日志
+     */
+    private static List<AuditLog> logs(int count, LocalDateTime createdAt) {
+        List<AuditLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AuditLog auditLog = new AuditLog();
+            auditLog.setId(1000L - i);
+            auditLog.setCreatedAt(createdAt);
+            logs.add(auditLog);
+        }
+        return logs;
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
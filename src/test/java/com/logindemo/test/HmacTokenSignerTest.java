@@ -0,0 +1,87 @@
+package com.logindemo.test;
+
+import com.logindemo.config.JwtKeyringProperties;
+import com.logindemo.utils.HmacTokenSigner;
+import com.logindemo.utils.JwtKeyring;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * HMAC快速签发器测试类
+ * 校验快速签发的Token与jjwt构建器签发的Token逐字节一致
+ */
+public class HmacTokenSignerTest {
+
+    private static final String SECRET =
+            "hmac-signer-test-secret-key-must-be-at-least-64-chars-long-for-hs512-0123456789";
+
+    private static final long ISSUED_AT = 1700000000123L;
+
+    private static final long EXPIRES_AT = 1700003600123L;
+
+    /**
+     * 单密钥模式（Token头不带kid）
+     */
+    @Test
+    public void testMatchesJjwtWithoutKeyId() {
+        JwtKeyring keyring = new JwtKeyring(SECRET);
+        HmacTokenSigner signer = newSigner(keyring);
+
+        for (String username : new String[]{"test_user", "张三", "quote\"back\\slash\ttab\u0001ctl", null}) {
+            assertEquals(jjwt(keyring, 10001L, username, "access"),
+                    signer.sign(10001L, username, "access", "AbCdEfGhIjKlMnOp", ISSUED_AT, EXPIRES_AT));
+        }
+        assertEquals(jjwt(keyring, 42L, "test_user", "refresh"),
+                signer.sign(42L, "test_user", "refresh", "AbCdEfGhIjKlMnOp", ISSUED_AT, EXPIRES_AT));
+    }
+
+    /**
+     * 多密钥模式（Token头带kid）
+     */
+    @Test
+    public void testMatchesJjwtWithKeyId() {
+        JwtKeyringProperties properties = new JwtKeyringProperties();
+        JwtKeyringProperties.Key key = new JwtKeyringProperties.Key();
+        key.setKid("hs-2024");
+        key.setSecret(SECRET);
+        properties.getKeys().add(key);
+        properties.setActiveKid("hs-2024");
+        JwtKeyring keyring = new JwtKeyring(properties, "", "HS512", "", "", "");
+        HmacTokenSigner signer = newSigner(keyring);
+
+        assertEquals(jjwt(keyring, 10001L, "test_user", "access"),
+                signer.sign(10001L, "test_user", "access", "AbCdEfGhIjKlMnOp", ISSUED_AT, EXPIRES_AT));
+    }
+
+    private static HmacTokenSigner newSigner(JwtKeyring keyring) {
+        return new HmacTokenSigner(keyring.getSigningAlgorithm(), keyring.getSigningKey(), keyring.getSigningKeyId());
+    }
+
+    /**
+     * 按JwtUtils原有方式使用jjwt构建器签发
+     */
+    private static String jjwt(JwtKeyring keyring, Long userId, String username, String type) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", userId);
+        claims.put("username", username);
+        claims.put("type", type);
+        claims.put("iat_ms", ISSUED_AT);
+
+        JwtBuilder builder = Jwts.builder()
+                .setClaims(claims)
+                .setId("AbCdEfGhIjKlMnOp")
+                .setIssuedAt(new Date(ISSUED_AT))
+                .setExpiration(new Date(EXPIRES_AT));
+        if (keyring.getSigningKeyId() != null) {
+            builder.setHeaderParam("kid", keyring.getSigningKeyId());
+        }
+        return builder.signWith(keyring.getSigningKey(), keyring.getSigningAlgorithm()).compact();
+    }
+}
@@ -0,0 +1,135 @@
+package com.logindemo.test;
+
+import com.logindemo.utils.MappedSpool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 内存映射本地缓冲测试类
+ * 校验追加、分段、消费进度提交、重启恢复以及CRC损坏记录的处理
+ */
+public class MappedSpoolTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 跨段追加与按批消费，已消费的段被删除
+     */
+    @Test
+    public void testAppendPeekCommitAcrossSegments() throws Exception {
+        try (MappedSpool spool = new MappedSpool(directory, SEGMENT_SIZE, 16)) {
+            for (int i = 0; i < 30; i++) {
+                assertTrue(spool.append(bytes("record-" + i)));
+            }
+            assertTrue(countSegments() > 1);
+
+            List<String> read = new ArrayList<>();
+            MappedSpool.Batch batch;
+            while (!(batch = spool.peek(7)).getRecords().isEmpty()) {
+                batch.getRecords().forEach(record -> read.add(text(record)));
+                spool.commit(batch);
+            }
+            assertEquals(30, read.size());
+            for (int i = 0; i < 30; i++) {
+                assertEquals("record-" + i, read.get(i));
+            }
+            assertTrue(spool.isEmpty());
+            assertEquals(1, countSegments());
+        }
+    }
+
+    /**
+     * 重启后从checkpoint继续消费，并在原写入位置之后继续追加
+     */
+    @Test
+    public void testRecoverAfterRestart() throws Exception {
+        try (MappedSpool spool = new MappedSpool(directory, SEGMENT_SIZE, 16)) {
+            for (int i = 0; i < 10; i++) {
+                spool.append(bytes("record-" + i));
+            }
+            spool.commit(spool.peek(4));
+        }
+        try (MappedSpool spool = new MappedSpool(directory, SEGMENT_SIZE, 16)) {
+            spool.append(bytes("record-10"));
+            List<byte[]> records = spool.peek(100).getRecords();
+            assertEquals(7, records.size());
+            assertEquals("record-4", text(records.get(0)));
+            assertEquals("record-10", text(records.get(6)));
+        }
+    }
+
+    /**
+     * CRC不一致的记录不会被读出，写入位置回退到损坏记录处
+     */
+    @Test
+    public void testCorruptedFrameIsSkipped() throws Exception {
+        try (MappedSpool spool = new MappedSpool(directory, SEGMENT_SIZE, 16)) {
+            spool.append(bytes("first"));
+            spool.append(bytes("second"));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.getFileName().toString().endsWith(".dat")).findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // 第二条记录的内容从 8 + "first".length() + 8 处开始
+            file.seek(8 + 5 + 8);
+            file.write('X');
+        }
+        try (MappedSpool spool = new MappedSpool(directory, SEGMENT_SIZE, 16)) {
+            List<byte[]> records = spool.peek(100).getRecords();
+            assertEquals(1, records.size());
+            assertEquals("first", text(records.get(0)));
+
+            spool.append(bytes("third"));
+            records = spool.peek(100).getRecords();
+            assertEquals(2, records.size());
+            assertEquals("third", text(records.get(1)));
+        }
+    }
+
+    /**
+     * 段数达到上限后拒绝写入
+     */
+    @Test
+    public void testRejectsWhenFull() throws Exception {
+        try (MappedSpool spool = new MappedSpool(directory, SEGMENT_SIZE, 2)) {
+            int appended = 0;
+            while (spool.append(bytes("record-" + appended))) {
+                appended++;
+            }
+            assertTrue(appended > 0);
+            assertFalse(spool.append(bytes("overflow")));
+            assertFalse(spool.append(new byte[SEGMENT_SIZE]));
+        }
+    }
+
+    private long countSegments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".dat")).count();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -13,7 +13,9 @@ import java.util.concurrent.TimeUnit;
  * 用于测试Redis在登录功能中的应用是否正常
  */
 @SpringBootTest
-@TestPropertySource(locations = "classpath:application.yml")
+// 关闭审计日志本地缓冲，避免测试在工作目录中预分配段文件
+@TestPropertySource(locations = "classpath:application.yml",
+        properties = "audit-log.spool.enabled=false")
 public class RedisFunctionTest {
 
     @Autowired